@@ -24,6 +24,7 @@ import java.util.EnumSet;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import net.minecraftforge.fml.loading.moddiscovery.ClassMarkerIndex;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 import org.objectweb.asm.tree.AnnotationNode;
@@ -50,7 +51,7 @@ public class ObjectHolderDefinalize implements ILaunchPluginService {
     @Override
     public EnumSet<Phase> handlesClass(Type classType, boolean isEmpty)
     {
-        return isEmpty ? NAY : YAY;
+        return isEmpty || ClassMarkerIndex.isUnmarked(classType, OBJECT_HOLDER) ? NAY : YAY;
     }
 
     private boolean hasHolder(List<AnnotationNode> lst)
@@ -25,6 +25,7 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 import net.minecraftforge.fml.loading.AdvancedLogMessageAdapter;
+import net.minecraftforge.fml.loading.moddiscovery.ClassMarkerIndex;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.objectweb.asm.Label;
@@ -65,7 +66,7 @@ public class RuntimeEnumExtender implements ILaunchPluginService {
     @Override
     public EnumSet<Phase> handlesClass(Type classType, boolean isEmpty)
     {
-        return isEmpty ? NAY : YAY;
+        return isEmpty || ClassMarkerIndex.isUnmarked(classType, MARKER_IFACE.getDescriptor()) ? NAY : YAY;
     }
 
     @Override
@@ -43,6 +43,8 @@ public class FMLConfig
         configSpec.define("maxThreads", -1);
         configSpec.define("versionCheck", Boolean.TRUE);
         configSpec.define("defaultConfigPath",  "defaultconfigs");
+        configSpec.define("cacheScanData", Boolean.TRUE);
+        configSpec.define("prefilterLaunchPlugins", Boolean.TRUE);
     }
 
     private CommentedFileConfig configData;
@@ -72,6 +74,8 @@ public class FMLConfig
         LOGGER.trace(CORE, "Max threads for mod loading computed at {}", FMLConfig::loadingThreadCount);
         LOGGER.trace(CORE, "Version check is {}", FMLConfig::runVersionCheck);
         LOGGER.trace(CORE, "Default config paths at {}", FMLConfig::defaultConfigPath);
+        LOGGER.trace(CORE, "Mod scan data cache is {}", FMLConfig::cacheScanData);
+        LOGGER.trace(CORE, "Launch plugin prefilter is {}", FMLConfig::prefilterLaunchPlugins);
         FMLPaths.getOrCreateGameRelativePath(Paths.get(FMLConfig.defaultConfigPath()), "default config directory");
     }
 
@@ -92,4 +96,12 @@ public class FMLConfig
     public static String defaultConfigPath() {
         return INSTANCE.configData.<String>getOptional("defaultConfigPath").orElse("defaultconfigs");
     }
+
+    public static boolean cacheScanData() {
+        return INSTANCE.configData.<Boolean>getOptional("cacheScanData").orElse(Boolean.TRUE);
+    }
+
+    public static boolean prefilterLaunchPlugins() {
+        return INSTANCE.configData.<Boolean>getOptional("prefilterLaunchPlugins").orElse(Boolean.TRUE);
+    }
 }
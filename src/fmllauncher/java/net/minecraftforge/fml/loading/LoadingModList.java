@@ -102,6 +102,7 @@ public class LoadingModList
         modFiles.stream()
                 .map(ModFileInfo::getFile)
                 .forEach(backgroundScanHandler::submitForScanning);
+        backgroundScanHandler.completeSubmission();
     }
 
     public List<ModFileInfo> getModFiles()
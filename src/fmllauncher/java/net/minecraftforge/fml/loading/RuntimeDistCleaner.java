@@ -34,6 +34,7 @@ import cpw.mods.modlauncher.serviceapi.ILaunchPluginService;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.api.distmarker.OnlyIn;
 import net.minecraftforge.api.distmarker.OnlyIns;
+import net.minecraftforge.fml.loading.moddiscovery.ClassMarkerIndex;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.Marker;
@@ -185,7 +186,7 @@ public class RuntimeDistCleaner implements ILaunchPluginService
     @Override
     public EnumSet<Phase> handlesClass(Type classType, boolean isEmpty)
     {
-        return isEmpty ? NAY : YAY;
+        return isEmpty || ClassMarkerIndex.isUnmarked(classType, ONLYIN, ONLYINS) ? NAY : YAY;
     }
 
     private static class LambdaGatherer extends MethodVisitor {
@@ -19,6 +19,7 @@
 
 package net.minecraftforge.fml.loading.moddiscovery;
 
+import net.minecraftforge.fml.loading.FMLConfig;
 import net.minecraftforge.forgespi.language.ModFileScanData;
 import net.minecraftforge.fml.loading.LoadingModList;
 import net.minecraftforge.forgespi.locating.IModFile;
@@ -32,6 +33,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static net.minecraftforge.fml.loading.LogMarkers.SCAN;
 
@@ -44,11 +46,14 @@ public class BackgroundScanHandler
     private final List<ModFile> allFiles;
     private final Map<IModFile.Type, List<ModFile>> modFiles;
     private LoadingModList loadingModList;
+    private boolean submissionComplete;
 
     public BackgroundScanHandler(final Map<IModFile.Type, List<ModFile>> modFiles) {
         this.modFiles = modFiles;
-        modContentScanner = Executors.newSingleThreadExecutor(r -> {
+        final AtomicInteger threadCount = new AtomicInteger();
+        modContentScanner = Executors.newFixedThreadPool(FMLConfig.loadingThreadCount(), r -> {
             final Thread thread = Executors.defaultThreadFactory().newThread(r);
+            thread.setName("modscanner-" + threadCount.getAndIncrement());
             thread.setDaemon(true);
             return thread;
         });
@@ -66,19 +71,34 @@ public class BackgroundScanHandler
             throw new IllegalStateException("Scanner has shutdown");
         }
         allFiles.add(file);
-        pendingFiles.add(file);
+        synchronized (this) {
+            pendingFiles.add(file);
+        }
         final CompletableFuture<ModFileScanData> future = CompletableFuture.supplyAsync(file::compileContent, modContentScanner)
                 .whenComplete(file::setScanResult)
                 .whenComplete((r,t)-> this.addCompletedFile(file,r,t));
         file.setFutureScanResult(future);
     }
 
-    private void addCompletedFile(final ModFile file, final ModFileScanData modFileScanData, final Throwable throwable) {
+    private synchronized void addCompletedFile(final ModFile file, final ModFileScanData modFileScanData, final Throwable throwable) {
         if (throwable != null) {
             LOGGER.error(SCAN,"An error occurred scanning file {}", file, throwable);
         }
         pendingFiles.remove(file);
         scannedFiles.add(file);
+        if (submissionComplete && pendingFiles.isEmpty()) {
+            ClassMarkerIndex.markComplete();
+        }
+    }
+
+    /**
+     * Called once every file has been submitted, so we know when the scan data is whole.
+     */
+    public synchronized void completeSubmission() {
+        submissionComplete = true;
+        if (pendingFiles.isEmpty()) {
+            ClassMarkerIndex.markComplete();
+        }
     }
 
     public void setLoadingModList(LoadingModList loadingModList)
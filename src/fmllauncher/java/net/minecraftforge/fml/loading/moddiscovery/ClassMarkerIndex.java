@@ -0,0 +1,84 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2019.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.minecraftforge.fml.loading.moddiscovery;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import net.minecraftforge.fml.loading.FMLConfig;
+import net.minecraftforge.forgespi.language.ModFileScanData;
+import org.objectweb.asm.Type;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The annotations and directly implemented interfaces of every class found by the mod scanner, keyed by internal name.
+ * Launch plugins use it to skip classes they have nothing to do for without parsing them into a tree first.
+ * <p>
+ * Classes the scanner did not see, such as Minecraft's own, are never skipped, and neither is anything before every
+ * mod file has finished scanning.
+ */
+public class ClassMarkerIndex
+{
+    private static final Map<String, Set<String>> markers = new ConcurrentHashMap<>();
+    private static volatile boolean complete;
+
+    static void addFile(final Map<Type, Set<Type>> classes, final Collection<ModFileScanData.AnnotationData> annotations)
+    {
+        final Map<String, Set<String>> fileMarkers = new HashMap<>(classes.size());
+        classes.forEach((clazz, interfaces) -> {
+            final Set<String> set = fileMarkers.computeIfAbsent(clazz.getInternalName(), k -> new HashSet<>());
+            interfaces.forEach(itf -> set.add(itf.getDescriptor()));
+        });
+        for (ModFileScanData.AnnotationData annotation : annotations) {
+            fileMarkers.computeIfAbsent(annotation.getClassType().getInternalName(), k -> new HashSet<>())
+                    .add(annotation.getAnnotationType().getDescriptor());
+        }
+        // The same class can be shipped by more than one file, keep everything any copy has
+        fileMarkers.forEach((name, set) -> markers.merge(name, ImmutableSet.copyOf(set), (a, b) -> ImmutableSet.copyOf(Sets.union(a, b))));
+    }
+
+    static void markComplete()
+    {
+        complete = true;
+    }
+
+    /**
+     * @param classType The class about to be transformed
+     * @param descriptors The descriptors of the annotations or interfaces the caller acts on
+     * @return true if the class was scanned and neither it nor its members carry any of the markers
+     */
+    public static boolean isUnmarked(final Type classType, final String... descriptors)
+    {
+        if (!complete || !FMLConfig.prefilterLaunchPlugins())
+            return false;
+        final Set<String> found = markers.get(classType.getInternalName());
+        if (found == null)
+            return false;
+        for (String descriptor : descriptors) {
+            if (found.contains(descriptor))
+                return false;
+        }
+        return true;
+    }
+}
@@ -75,6 +75,21 @@ public class ModClassVisitor extends ClassVisitor
         return new ModMethodVisitor(name, desc, annotations);
     }
 
+    public Type getASMType()
+    {
+        return asmType;
+    }
+
+    public Type getASMSuperType()
+    {
+        return asmSuperType;
+    }
+
+    public Set<Type> getInterfaces()
+    {
+        return interfaces;
+    }
+
     public void buildData(final Set<ModFileScanData.ClassData> classes, final Set<ModFileScanData.AnnotationData> annotations) {
         classes.add(new ModFileScanData.ClassData(this.asmType, this.asmSuperType, this.interfaces));
         final List<ModFileScanData.AnnotationData> collect = this.annotations.stream().
@@ -0,0 +1,427 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2019.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.fml.loading.moddiscovery;
+
+import net.minecraftforge.fml.loading.FMLConfig;
+import net.minecraftforge.fml.loading.FMLPaths;
+import net.minecraftforge.forgespi.language.ModFileScanData;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.objectweb.asm.Type;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.ElementType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static net.minecraftforge.fml.loading.LogMarkers.SCAN;
+
+/**
+ * Persistent store of the class and annotation data harvested by {@link Scanner}.
+ *
+ * Each mod jar gets one cache file, named after its path. An entry is only used if the jar's size,
+ * modification time and content hash all match the values recorded when it was written, so a
+ * replaced or rebuilt jar is always rescanned.
+ */
+public class ModFileScanCache
+{
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final int MAGIC = 0x464d4c53; // FMLS
+    private static final int VERSION = 1;
+    private static Path cacheDir;
+
+    private final ModFile modFile;
+    private final Path cacheFile;
+    private final long size;
+    private final long lastModified;
+    private final String hash;
+
+    private ModFileScanCache(final ModFile modFile, final Path cacheFile, final long size, final long lastModified, final String hash)
+    {
+        this.modFile = modFile;
+        this.cacheFile = cacheFile;
+        this.size = size;
+        this.lastModified = lastModified;
+        this.hash = hash;
+    }
+
+    /**
+     * @return a cache handle for the file, or null if caching is disabled or the file isn't a plain jar
+     */
+    public static ModFileScanCache forFile(final ModFile modFile)
+    {
+        final Path path = modFile.getFilePath();
+        if (!FMLConfig.cacheScanData() || path == null || !Files.isRegularFile(path)) {
+            return null;
+        }
+        try {
+            final String absolutePath = path.toAbsolutePath().normalize().toString();
+            final Path cacheFile = getCacheDir().resolve(hexDigest(absolutePath.getBytes(StandardCharsets.UTF_8)) + ".scan");
+            return new ModFileScanCache(modFile, cacheFile, Files.size(path), Files.getLastModifiedTime(path).toMillis(), hashFile(path));
+        } catch (IOException e) {
+            LOGGER.debug(SCAN, "Unable to fingerprint {} for the scan cache", path, e);
+            return null;
+        }
+    }
+
+    private static synchronized Path getCacheDir()
+    {
+        if (cacheDir == null) {
+            cacheDir = FMLPaths.getOrCreateGameRelativePath(Paths.get(".fml", "scancache"), "mod scan cache");
+        }
+        return cacheDir;
+    }
+
+    /**
+     * @return the hex SHA-1 of the file's content
+     */
+    public static String hashFile(final Path path) throws IOException
+    {
+        final MessageDigest digest = sha1();
+        final byte[] buffer = new byte[65536];
+        try (InputStream in = Files.newInputStream(path)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    private static String hexDigest(final byte[] data)
+    {
+        return toHex(sha1().digest(data));
+    }
+
+    private static MessageDigest sha1()
+    {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is unavailable", e);
+        }
+    }
+
+    private static String toHex(final byte[] bytes)
+    {
+        final StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    public String getHash()
+    {
+        return hash;
+    }
+
+    /**
+     * Populate the scan data from the cache.
+     *
+     * @param classInterfaces Receives the interfaces of each loaded class, which the scan data does not expose
+     * @return true if a valid entry was found and loaded
+     */
+    public boolean read(final ModFileScanData result, final Map<Type, Set<Type>> classInterfaces)
+    {
+        if (!Files.exists(cacheFile)) {
+            return false;
+        }
+        final Set<ModFileScanData.ClassData> classes = new HashSet<>();
+        final Map<Type, Set<Type>> interfacesByClass = new HashMap<>();
+        final Set<ModFileScanData.AnnotationData> annotations = new HashSet<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return false;
+            if (!in.readUTF().equals(modFile.getFilePath().toAbsolutePath().normalize().toString())) return false;
+            if (in.readLong() != size || in.readLong() != lastModified || !in.readUTF().equals(hash)) return false;
+
+            final int classCount = in.readInt();
+            for (int i = 0; i < classCount; i++) {
+                final Type clazz = Type.getType(in.readUTF());
+                final Type parent = in.readBoolean() ? Type.getType(in.readUTF()) : null;
+                final int interfaceCount = in.readInt();
+                final Set<Type> interfaces = new HashSet<>(interfaceCount);
+                for (int j = 0; j < interfaceCount; j++) {
+                    interfaces.add(Type.getType(in.readUTF()));
+                }
+                classes.add(new ModFileScanData.ClassData(clazz, parent, interfaces));
+                interfacesByClass.put(clazz, interfaces);
+            }
+            final int annotationCount = in.readInt();
+            for (int i = 0; i < annotationCount; i++) {
+                final Type annotationType = Type.getType(in.readUTF());
+                final ElementType targetType = ElementType.valueOf(in.readUTF());
+                final Type classType = Type.getType(in.readUTF());
+                final String memberName = in.readUTF();
+                @SuppressWarnings("unchecked")
+                final Map<String, Object> values = (Map<String, Object>) readValue(in);
+                annotations.add(new ModFileScanData.AnnotationData(annotationType, targetType, classType, memberName, values));
+            }
+        } catch (IOException | IllegalArgumentException | ClassCastException e) {
+            LOGGER.debug(SCAN, "Discarding unreadable scan cache {} for {}", cacheFile, modFile, e);
+            return false;
+        }
+        result.getClasses().addAll(classes);
+        result.getAnnotations().addAll(annotations);
+        classInterfaces.putAll(interfacesByClass);
+        LOGGER.debug(SCAN, "Loaded {} classes and {} annotations for {} from the scan cache", classes.size(), annotations.size(), modFile);
+        return true;
+    }
+
+    /**
+     * Store freshly scanned data. Failures are logged and otherwise ignored, the next launch will just scan again.
+     */
+    public void write(final List<ModClassVisitor> classes, final Set<ModFileScanData.AnnotationData> annotations)
+    {
+        final Path tmp = cacheFile.resolveSibling(cacheFile.getFileName() + "." + Thread.currentThread().getId() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(modFile.getFilePath().toAbsolutePath().normalize().toString());
+                out.writeLong(size);
+                out.writeLong(lastModified);
+                out.writeUTF(hash);
+
+                out.writeInt(classes.size());
+                for (ModClassVisitor mcv : classes) {
+                    out.writeUTF(mcv.getASMType().getDescriptor());
+                    out.writeBoolean(mcv.getASMSuperType() != null);
+                    if (mcv.getASMSuperType() != null) {
+                        out.writeUTF(mcv.getASMSuperType().getDescriptor());
+                    }
+                    out.writeInt(mcv.getInterfaces().size());
+                    for (Type itf : mcv.getInterfaces()) {
+                        out.writeUTF(itf.getDescriptor());
+                    }
+                }
+                out.writeInt(annotations.size());
+                for (ModFileScanData.AnnotationData ad : annotations) {
+                    out.writeUTF(ad.getAnnotationType().getDescriptor());
+                    out.writeUTF(ad.getTargetType().name());
+                    out.writeUTF(ad.getClassType().getDescriptor());
+                    out.writeUTF(ad.getMemberName());
+                    writeValue(out, ad.getAnnotationData());
+                }
+            }
+            Files.move(tmp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.debug(SCAN, "Unable to write scan cache {} for {}", cacheFile, modFile, e);
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    // Annotation values are whatever ASM hands to ModAnnotationVisitor: boxed primitives, strings, types,
+    // primitive arrays, enum holders, lists of those and nested annotation value maps.
+    private enum ValueType { NULL, STRING, BOOLEAN, BYTE, CHAR, SHORT, INT, LONG, FLOAT, DOUBLE, TYPE, ENUM, LIST, MAP,
+        BOOLEAN_ARRAY, BYTE_ARRAY, CHAR_ARRAY, SHORT_ARRAY, INT_ARRAY, LONG_ARRAY, FLOAT_ARRAY, DOUBLE_ARRAY }
+
+    private static void writeValue(final DataOutputStream out, final Object value) throws IOException
+    {
+        if (value == null) {
+            out.writeByte(ValueType.NULL.ordinal());
+        } else if (value instanceof String) {
+            out.writeByte(ValueType.STRING.ordinal());
+            out.writeUTF((String) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(ValueType.BOOLEAN.ordinal());
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Byte) {
+            out.writeByte(ValueType.BYTE.ordinal());
+            out.writeByte((Byte) value);
+        } else if (value instanceof Character) {
+            out.writeByte(ValueType.CHAR.ordinal());
+            out.writeChar((Character) value);
+        } else if (value instanceof Short) {
+            out.writeByte(ValueType.SHORT.ordinal());
+            out.writeShort((Short) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(ValueType.INT.ordinal());
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(ValueType.LONG.ordinal());
+            out.writeLong((Long) value);
+        } else if (value instanceof Float) {
+            out.writeByte(ValueType.FLOAT.ordinal());
+            out.writeFloat((Float) value);
+        } else if (value instanceof Double) {
+            out.writeByte(ValueType.DOUBLE.ordinal());
+            out.writeDouble((Double) value);
+        } else if (value instanceof Type) {
+            out.writeByte(ValueType.TYPE.ordinal());
+            out.writeUTF(((Type) value).getDescriptor());
+        } else if (value instanceof ModAnnotation.EnumHolder) {
+            out.writeByte(ValueType.ENUM.ordinal());
+            out.writeUTF(((ModAnnotation.EnumHolder) value).getDesc());
+            out.writeUTF(((ModAnnotation.EnumHolder) value).getValue());
+        } else if (value instanceof List) {
+            out.writeByte(ValueType.LIST.ordinal());
+            final List<?> list = (List<?>) value;
+            out.writeInt(list.size());
+            for (Object o : list) {
+                writeValue(out, o);
+            }
+        } else if (value instanceof Map) {
+            out.writeByte(ValueType.MAP.ordinal());
+            final Map<?, ?> map = (Map<?, ?>) value;
+            out.writeInt(map.size());
+            for (Map.Entry<?, ?> e : map.entrySet()) {
+                out.writeUTF((String) e.getKey());
+                writeValue(out, e.getValue());
+            }
+        } else if (value instanceof boolean[]) {
+            out.writeByte(ValueType.BOOLEAN_ARRAY.ordinal());
+            final boolean[] arr = (boolean[]) value;
+            out.writeInt(arr.length);
+            for (boolean v : arr) out.writeBoolean(v);
+        } else if (value instanceof byte[]) {
+            out.writeByte(ValueType.BYTE_ARRAY.ordinal());
+            final byte[] arr = (byte[]) value;
+            out.writeInt(arr.length);
+            out.write(arr);
+        } else if (value instanceof char[]) {
+            out.writeByte(ValueType.CHAR_ARRAY.ordinal());
+            final char[] arr = (char[]) value;
+            out.writeInt(arr.length);
+            for (char v : arr) out.writeChar(v);
+        } else if (value instanceof short[]) {
+            out.writeByte(ValueType.SHORT_ARRAY.ordinal());
+            final short[] arr = (short[]) value;
+            out.writeInt(arr.length);
+            for (short v : arr) out.writeShort(v);
+        } else if (value instanceof int[]) {
+            out.writeByte(ValueType.INT_ARRAY.ordinal());
+            final int[] arr = (int[]) value;
+            out.writeInt(arr.length);
+            for (int v : arr) out.writeInt(v);
+        } else if (value instanceof long[]) {
+            out.writeByte(ValueType.LONG_ARRAY.ordinal());
+            final long[] arr = (long[]) value;
+            out.writeInt(arr.length);
+            for (long v : arr) out.writeLong(v);
+        } else if (value instanceof float[]) {
+            out.writeByte(ValueType.FLOAT_ARRAY.ordinal());
+            final float[] arr = (float[]) value;
+            out.writeInt(arr.length);
+            for (float v : arr) out.writeFloat(v);
+        } else if (value instanceof double[]) {
+            out.writeByte(ValueType.DOUBLE_ARRAY.ordinal());
+            final double[] arr = (double[]) value;
+            out.writeInt(arr.length);
+            for (double v : arr) out.writeDouble(v);
+        } else {
+            throw new IOException("Unsupported annotation value type " + value.getClass().getName());
+        }
+    }
+
+    private static Object readValue(final DataInputStream in) throws IOException
+    {
+        final int tag = in.readUnsignedByte();
+        if (tag >= ValueType.values().length) {
+            throw new IOException("Unknown annotation value tag " + tag);
+        }
+        switch (ValueType.values()[tag]) {
+            case NULL: return null;
+            case STRING: return in.readUTF();
+            case BOOLEAN: return in.readBoolean();
+            case BYTE: return in.readByte();
+            case CHAR: return in.readChar();
+            case SHORT: return in.readShort();
+            case INT: return in.readInt();
+            case LONG: return in.readLong();
+            case FLOAT: return in.readFloat();
+            case DOUBLE: return in.readDouble();
+            case TYPE: return Type.getType(in.readUTF());
+            case ENUM: return new ModAnnotation.EnumHolder(in.readUTF(), in.readUTF());
+            case LIST: {
+                final int len = in.readInt();
+                final ArrayList<Object> list = new ArrayList<>(len);
+                for (int i = 0; i < len; i++) list.add(readValue(in));
+                return list;
+            }
+            case MAP: {
+                final int len = in.readInt();
+                final Map<String, Object> map = new HashMap<>();
+                for (int i = 0; i < len; i++) map.put(in.readUTF(), readValue(in));
+                return map;
+            }
+            case BOOLEAN_ARRAY: {
+                final boolean[] arr = new boolean[in.readInt()];
+                for (int i = 0; i < arr.length; i++) arr[i] = in.readBoolean();
+                return arr;
+            }
+            case BYTE_ARRAY: {
+                final byte[] arr = new byte[in.readInt()];
+                in.readFully(arr);
+                return arr;
+            }
+            case CHAR_ARRAY: {
+                final char[] arr = new char[in.readInt()];
+                for (int i = 0; i < arr.length; i++) arr[i] = in.readChar();
+                return arr;
+            }
+            case SHORT_ARRAY: {
+                final short[] arr = new short[in.readInt()];
+                for (int i = 0; i < arr.length; i++) arr[i] = in.readShort();
+                return arr;
+            }
+            case INT_ARRAY: {
+                final int[] arr = new int[in.readInt()];
+                for (int i = 0; i < arr.length; i++) arr[i] = in.readInt();
+                return arr;
+            }
+            case LONG_ARRAY: {
+                final long[] arr = new long[in.readInt()];
+                for (int i = 0; i < arr.length; i++) arr[i] = in.readLong();
+                return arr;
+            }
+            case FLOAT_ARRAY: {
+                final float[] arr = new float[in.readInt()];
+                for (int i = 0; i < arr.length; i++) arr[i] = in.readFloat();
+                return arr;
+            }
+            case DOUBLE_ARRAY: {
+                final double[] arr = new double[in.readInt()];
+                for (int i = 0; i < arr.length; i++) arr[i] = in.readDouble();
+                return arr;
+            }
+            default: throw new IOException("Unknown annotation value tag " + tag);
+        }
+    }
+}
@@ -24,11 +24,17 @@ import net.minecraftforge.forgespi.language.ModFileScanData;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Type;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static net.minecraftforge.fml.loading.LogMarkers.SCAN;
 
@@ -43,7 +49,17 @@ public class Scanner {
     public ModFileScanData scan() {
         ModFileScanData result = new ModFileScanData();
         result.addModFileInfo(fileToScan.getModFileInfo());
-        fileToScan.scanFile(p -> fileVisitor(p, result));
+        final ModFileScanCache cache = ModFileScanCache.forFile(fileToScan);
+        final Map<Type, Set<Type>> classInterfaces = new HashMap<>();
+        if (cache == null || !cache.read(result, classInterfaces)) {
+            final List<ModClassVisitor> visited = new ArrayList<>();
+            fileToScan.scanFile(p -> fileVisitor(p, result, visited));
+            if (cache != null) {
+                cache.write(visited, result.getAnnotations());
+            }
+            visited.forEach(mcv -> classInterfaces.put(mcv.getASMType(), mcv.getInterfaces()));
+        }
+        ClassMarkerIndex.addFile(classInterfaces, result.getAnnotations());
         final IModLanguageProvider loader = fileToScan.getLoader();
         if (loader != null) {
             LOGGER.debug(SCAN, "Scanning {} with language loader {}", fileToScan.getFilePath(), loader.name());
@@ -52,13 +68,14 @@ public class Scanner {
         return result;
     }
 
-    private void fileVisitor(final Path path, final ModFileScanData result) {
+    private void fileVisitor(final Path path, final ModFileScanData result, final List<ModClassVisitor> visited) {
         LOGGER.debug(SCAN,"Scanning {} path {}", fileToScan, path);
         try (InputStream in = Files.newInputStream(path)){
             ModClassVisitor mcv = new ModClassVisitor();
             ClassReader cr = new ClassReader(in);
             cr.accept(mcv, 0);
             mcv.buildData(result.getClasses(), result.getAnnotations());
+            visited.add(mcv);
         } catch (IOException | IllegalArgumentException e) {
             // mark path bad
         }
@@ -21,15 +21,19 @@ package net.minecraftforge.client.model;
 
 import java.lang.ref.WeakReference;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import javax.annotation.Nullable;
 
 import com.google.common.base.Preconditions;
 
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import net.minecraft.client.Minecraft;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.math.BlockPos;
@@ -42,14 +46,63 @@ import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
 import net.minecraftforge.fml.common.Mod.EventBusSubscriber.Bus;
 
+/**
+ * Client side cache of tile entity model data, per chunk and keyed by {@link BlockPos#toLong()}.
+ *
+ * <p>Refresh requests are collected per chunk and applied together the next time anything reads that chunk. Applying
+ * them replaces the chunk's map, so a map handed out by {@link #getChunkModelData(World, long)} is never modified and
+ * chunk rebuilds can read it from any thread. The chunk table itself is concurrent, so lookups take no lock.
+ */
 @EventBusSubscriber(modid = "forge", bus = Bus.FORGE, value = Dist.CLIENT)
 public class ModelDataManager
 {
     private static WeakReference<World> currentWorld = new WeakReference<>(null);
-    
-    private static final Map<ChunkPos, Set<BlockPos>> needModelDataRefresh = new ConcurrentHashMap<>();
-    
-    private static final Map<ChunkPos, Map<BlockPos, IModelData>> modelDataCache = new ConcurrentHashMap<>();
+
+    private static final Map<Long, ChunkData> chunks = new ConcurrentHashMap<>();
+
+    private static class ChunkData
+    {
+        // Guarded by this
+        private final LongOpenHashSet needRefresh = new LongOpenHashSet();
+        private volatile boolean hasRefresh;
+        private volatile Long2ObjectMap<IModelData> data = Long2ObjectMaps.emptyMap();
+
+        synchronized void requestRefresh(long pos)
+        {
+            needRefresh.add(pos);
+            hasRefresh = true;
+        }
+
+        Long2ObjectMap<IModelData> refresh(World world)
+        {
+            if (!hasRefresh)
+                return data;
+            synchronized (this)
+            {
+                if (!hasRefresh)
+                    return data;
+                Long2ObjectOpenHashMap<IModelData> updated = new Long2ObjectOpenHashMap<>(data);
+                BlockPos.Mutable pos = new BlockPos.Mutable();
+                for (LongIterator it = needRefresh.iterator(); it.hasNext();)
+                {
+                    long key = it.nextLong();
+                    TileEntity toUpdate = world.getTileEntity(pos.setPos(BlockPos.unpackX(key), BlockPos.unpackY(key), BlockPos.unpackZ(key)));
+                    if (toUpdate != null && !toUpdate.isRemoved())
+                    {
+                        updated.put(key, toUpdate.getModelData());
+                    }
+                    else
+                    {
+                        updated.remove(key);
+                    }
+                }
+                needRefresh.clear();
+                hasRefresh = false;
+                data = updated.isEmpty() ? Long2ObjectMaps.emptyMap() : Long2ObjectMaps.unmodifiable(updated);
+                return data;
+            }
+        }
+    }
 
     private static void cleanCaches(World world)
     {
@@ -58,63 +111,57 @@ public class ModelDataManager
         if (world != currentWorld.get())
         {
             currentWorld = new WeakReference<>(world);
-            needModelDataRefresh.clear();
-            modelDataCache.clear();
+            chunks.clear();
         }
     }
-    
+
     public static void requestModelDataRefresh(TileEntity te)
     {
         Preconditions.checkNotNull(te, "Tile entity must not be null");
         World world = te.getWorld();
 
         cleanCaches(world);
-        needModelDataRefresh.computeIfAbsent(new ChunkPos(te.getPos()), $ -> Collections.synchronizedSet(new HashSet<>()))
-                            .add(te.getPos());
+        BlockPos pos = te.getPos();
+        long chunk = ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4);
+        chunks.computeIfAbsent(chunk, k -> new ChunkData()).requestRefresh(pos.toLong());
     }
-    
-    private static void refreshModelData(World world, ChunkPos chunk)
-    {        
-        cleanCaches(world);
-        Set<BlockPos> needUpdate = needModelDataRefresh.remove(chunk);
 
-        if (needUpdate != null)
-        {
-            Map<BlockPos, IModelData> data = modelDataCache.computeIfAbsent(chunk, $ -> new ConcurrentHashMap<>());
-            for (BlockPos pos : needUpdate)
-            {
-                TileEntity toUpdate = world.getTileEntity(pos);
-                if (toUpdate != null && !toUpdate.isRemoved())
-                {
-                    data.put(pos, toUpdate.getModelData());
-                }
-                else
-                {
-                    data.remove(pos);
-                }
-            }
-        }
-    }
-    
     @SubscribeEvent
     public static void onChunkUnload(ChunkEvent.Unload event)
     {
         if (!event.getChunk().getWorldForge().isRemote()) return;
-        
-        ChunkPos chunk = event.getChunk().getPos();
-        needModelDataRefresh.remove(chunk);
-        modelDataCache.remove(chunk);
+
+        chunks.remove(event.getChunk().getPos().asLong());
     }
-    
+
     public static @Nullable IModelData getModelData(World world, BlockPos pos)
     {
-        return getModelData(world, new ChunkPos(pos)).get(pos);
+        return getChunkModelData(world, ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4)).get(pos.toLong());
     }
-    
-    public static Map<BlockPos, IModelData> getModelData(World world, ChunkPos pos)
+
+    /**
+     * @param chunk The chunk, as {@link ChunkPos#asLong()}
+     * @return The model data of the chunk keyed by {@link BlockPos#toLong()}. The map is a snapshot that is never modified.
+     */
+    public static Long2ObjectMap<IModelData> getChunkModelData(World world, long chunk)
     {
         Preconditions.checkArgument(world.isRemote, "Cannot request model data for server world");
-        refreshModelData(world, pos);
-        return modelDataCache.getOrDefault(pos, Collections.emptyMap());
+        cleanCaches(world);
+        ChunkData data = chunks.get(chunk);
+        return data == null ? Long2ObjectMaps.emptyMap() : data.refresh(world);
+    }
+
+    /**
+     * @deprecated Use {@link #getChunkModelData(World, long)}, which doesn't copy the data into a new map
+     */
+    @Deprecated
+    public static Map<BlockPos, IModelData> getModelData(World world, ChunkPos pos)
+    {
+        Long2ObjectMap<IModelData> data = getChunkModelData(world, pos.asLong());
+        if (data.isEmpty())
+            return Collections.emptyMap();
+        Map<BlockPos, IModelData> ret = new HashMap<>();
+        data.long2ObjectEntrySet().forEach(e -> ret.put(BlockPos.fromLong(e.getLongKey()), e.getValue()));
+        return ret;
     }
 }
@@ -19,31 +19,54 @@
 
 package net.minecraftforge.client.model.data;
 
+import java.util.Arrays;
 import java.util.IdentityHashMap;
 import java.util.Map;
 
 import com.google.common.base.Preconditions;
 
+/**
+ * Model data backed by two parallel arrays searched by identity. Most models only declare a handful of properties,
+ * where a linear scan beats hashing and the map costs two small arrays instead of a hash table.
+ */
 public class ModelDataMap implements IModelData
 {
-    private final Map<ModelProperty<?>, Object> backingMap;
-    
+    private ModelProperty<?>[] keys;
+    private Object[] values;
+    private int size;
+
     private ModelDataMap(Map<ModelProperty<?>, Object> map)
     {
-        this.backingMap = new IdentityHashMap<>(map);
+        this.keys = new ModelProperty<?>[Math.max(map.size(), 1)];
+        this.values = new Object[this.keys.length];
+        map.forEach((prop, value) -> {
+            this.keys[this.size] = prop;
+            this.values[this.size++] = value;
+        });
     }
-    
+
+    private int indexOf(ModelProperty<?> prop)
+    {
+        for (int i = 0; i < size; i++)
+        {
+            if (keys[i] == prop)
+                return i;
+        }
+        return -1;
+    }
+
     @Override
     public boolean hasProperty(ModelProperty<?> prop)
     {
-        return backingMap.containsKey(prop);
+        return indexOf(prop) != -1;
     }
 
     @SuppressWarnings("unchecked")
     @Override
     public <T> T getData(ModelProperty<T> prop)
     {
-        return (T) backingMap.get(prop);
+        int idx = indexOf(prop);
+        return idx == -1 ? null : (T) values[idx];
     }
 
     @SuppressWarnings("unchecked")
@@ -51,7 +74,21 @@ public class ModelDataMap implements IModelData
     public <T> T setData(ModelProperty<T> prop, T data)
     {
         Preconditions.checkArgument(prop.test(data), "Value is invalid for this property");
-        return (T) backingMap.put(prop, data);
+        int idx = indexOf(prop);
+        if (idx != -1)
+        {
+            T old = (T) values[idx];
+            values[idx] = data;
+            return old;
+        }
+        if (size == keys.length)
+        {
+            keys = Arrays.copyOf(keys, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        keys[size] = prop;
+        values[size++] = data;
+        return null;
     }
     
     public static class Builder
@@ -16,82 +16,332 @@
  * License along with this library; if not, write to the Free Software
  * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
  */
-
 package net.minecraftforge.client.model.obj;
 
 import com.google.common.base.Charsets;
-import joptsimple.internal.Strings;
 import net.minecraft.resources.IResource;
 
 import javax.annotation.Nullable;
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.util.ArrayList;
+import java.io.Reader;
 import java.util.Arrays;
-import java.util.List;
 
+/**
+ * Tokenizer for OBJ and MTL files.
+ *
+ * Lines are read into a reusable char buffer and split on spaces and tabs in place; the tokens of the
+ * current line are kept as offsets into that buffer. {@link #parseFloat(int)} and {@link #parseIndices(int)}
+ * read numbers straight from the buffer, so the hot vertex and face lines don't allocate any strings.
+ * Lines starting with '#' are comments, and a trailing '\' continues the line onto the next one.
+ */
 public class LineReader implements AutoCloseable
 {
-    InputStreamReader lineStream;
-    BufferedReader lineReader;
+    private static final String[] KEYWORDS = { "v", "vt", "vn", "vc", "f", "s", "g", "o", "usemtl", "mtllib" };
+    // Every power here is exact as a float, so dividing an exact mantissa by one rounds only once
+    private static final float[] POWERS_OF_TEN = { 1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f };
+    private static final long MAX_EXACT_MANTISSA = 1 << 24;
+
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int bufferPos;
+    private int bufferEnd;
+    private boolean skipLF;
+
+    private char[] text = new char[256];
+    private int textLength;
+    private int[] tokenStarts = new int[16];
+    private int[] tokenEnds = new int[16];
+    private int tokenCount;
 
     public LineReader(IResource resource)
     {
-        this.lineStream = new InputStreamReader(resource.getInputStream(), Charsets.UTF_8);
-        this.lineReader = new BufferedReader(lineStream);
+        this(new InputStreamReader(resource.getInputStream(), Charsets.UTF_8));
+    }
+
+    public LineReader(Reader reader)
+    {
+        this.reader = reader;
+    }
+
+    /**
+     * Advances to the next line.
+     * @param ignoreEmptyLines skip lines without tokens instead of stopping at them
+     * @return false at the end of the file
+     */
+    public boolean nextLine(boolean ignoreEmptyLines) throws IOException
+    {
+        do
+        {
+            textLength = 0;
+            tokenCount = 0;
+
+            int length = readRawLine();
+            if (length < 0)
+                return false;
+
+            if (length > 0 && text[0] != '#')
+            {
+                int start = 0;
+                while (true)
+                {
+                    boolean hasContinuation = text[textLength - 1] == '\\';
+                    tokenize(start, hasContinuation ? textLength - 1 : textLength);
+                    if (!hasContinuation)
+                        break;
+
+                    start = textLength;
+                    if (readRawLine() <= 0 || text[start] == '#')
+                        break;
+                }
+            }
+
+            if (tokenCount > 0)
+                return true;
+        }
+        while (ignoreEmptyLines);
+
+        return true;
     }
 
     @Nullable
     public String[] readAndSplitLine(boolean ignoreEmptyLines) throws IOException
     {
-        //noinspection LoopConditionNotUpdatedInsideLoop
-        do
+        return nextLine(ignoreEmptyLines) ? readTokens() : null;
+    }
+
+    /**
+     * The tokens of the current line as strings.
+     */
+    public String[] readTokens()
+    {
+        String[] ret = new String[tokenCount];
+        for (int i = 0; i < tokenCount; i++)
+            ret[i] = getToken(i);
+        return ret;
+    }
+
+    public int getTokenCount()
+    {
+        return tokenCount;
+    }
+
+    public String getToken(int index)
+    {
+        checkIndex(index);
+        return new String(text, tokenStarts[index], tokenEnds[index] - tokenStarts[index]);
+    }
+
+    /**
+     * The first token of the line, without allocating for the common OBJ keywords.
+     */
+    public String getKeyword()
+    {
+        for (String keyword : KEYWORDS)
         {
-            String currentLine = lineReader.readLine();
-            if (currentLine == null)
-                return null;
+            if (tokenEquals(0, keyword))
+                return keyword;
+        }
+        return getToken(0);
+    }
 
-            List<String> lineParts = new ArrayList<>();
+    public boolean tokenEquals(int index, String value)
+    {
+        checkIndex(index);
+        int start = tokenStarts[index];
+        int length = tokenEnds[index] - start;
+        if (length != value.length())
+            return false;
+        for (int i = 0; i < length; i++)
+        {
+            if (text[start + i] != value.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Parses a token as a float, with the same result as {@link Float#parseFloat(String)}. Plain decimals whose digits
+     * fit in 24 bits with at most 10 after the dot are parsed directly, anything else (exponents, long mantissas,
+     * NaN, ...) goes through {@link Float#parseFloat(String)}.
+     */
+    public float parseFloat(int index)
+    {
+        checkIndex(index);
+        int pos = tokenStarts[index];
+        int end = tokenEnds[index];
 
-            if (currentLine.startsWith("#"))
-                currentLine = "";
+        boolean negative = false;
+        if (pos < end && (text[pos] == '-' || text[pos] == '+'))
+            negative = text[pos++] == '-';
 
-            if (currentLine.length() > 0)
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean seenDigit = false;
+        boolean seenDot = false;
+        for (; pos < end; pos++)
+        {
+            char c = text[pos];
+            if (c >= '0' && c <= '9')
             {
+                seenDigit = true;
+                if (mantissa != 0 || c != '0')
+                    digits++;
+                mantissa = mantissa * 10 + (c - '0');
+                if (seenDot)
+                    scale++;
+            }
+            else if (c == '.' && !seenDot)
+                seenDot = true;
+            else
+                break;
+        }
 
-                boolean hasContinuation;
-                do
-                {
-                    hasContinuation = currentLine.endsWith("\\");
-                    String tmp = hasContinuation ? currentLine.substring(0, currentLine.length() - 1) : currentLine;
+        // digits is checked first, mantissa may have overflowed past that
+        if (pos != end || !seenDigit || digits > 15 || mantissa > MAX_EXACT_MANTISSA || scale >= POWERS_OF_TEN.length)
+            return Float.parseFloat(getToken(index));
 
-                    Arrays.stream(tmp.split("[\t ]+")).filter(s -> !Strings.isNullOrEmpty(s)).forEach(lineParts::add);
+        float value = scale == 0 ? mantissa : mantissa / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
 
-                    if (hasContinuation)
-                    {
-                        currentLine = lineReader.readLine();
-                        if (currentLine == null)
-                            break;
+    /**
+     * Parses a face vertex such as "1/2/3" or "1//3". Empty parts are 0, and trailing empty parts are dropped
+     * the same way {@link String#split(String)} drops them.
+     */
+    public int[] parseIndices(int index)
+    {
+        checkIndex(index);
+        int start = tokenStarts[index];
+        int end = tokenEnds[index];
+        while (end > start && text[end - 1] == '/')
+            end--;
 
-                        if (currentLine.length() == 0 || currentLine.startsWith("#"))
-                            break;
-                    }
-                } while (hasContinuation);
+        int count = 1;
+        for (int i = start; i < end; i++)
+        {
+            if (text[i] == '/')
+                count++;
+        }
+        if (end == start)
+            count = 0;
+
+        int[] ret = new int[count];
+        int part = 0;
+        int partStart = start;
+        for (int i = start; i <= end && count > 0; i++)
+        {
+            if (i == end || text[i] == '/')
+            {
+                ret[part++] = parseInt(partStart, i);
+                partStart = i + 1;
             }
+        }
+        return ret;
+    }
+
+    private int parseInt(int start, int end)
+    {
+        if (start == end)
+            return 0;
+
+        int pos = start;
+        boolean negative = false;
+        if (text[pos] == '-' || text[pos] == '+')
+            negative = text[pos++] == '-';
 
-            if (lineParts.size() > 0)
-                return lineParts.toArray(new String[0]);
+        int value = 0;
+        if (pos == end || end - pos > 9)
+            return Integer.parseInt(new String(text, start, end - start));
+        for (; pos < end; pos++)
+        {
+            char c = text[pos];
+            if (c < '0' || c > '9')
+                return Integer.parseInt(new String(text, start, end - start));
+            value = value * 10 + (c - '0');
         }
-        while (ignoreEmptyLines);
+        return negative ? -value : value;
+    }
+
+    private void checkIndex(int index)
+    {
+        if (index < 0 || index >= tokenCount)
+            throw new ArrayIndexOutOfBoundsException(index);
+    }
 
-        return new String[0];
+    private void tokenize(int start, int end)
+    {
+        int pos = start;
+        while (pos < end)
+        {
+            while (pos < end && (text[pos] == ' ' || text[pos] == '\t'))
+                pos++;
+            if (pos == end)
+                break;
+
+            int tokenStart = pos;
+            while (pos < end && text[pos] != ' ' && text[pos] != '\t')
+                pos++;
+
+            if (tokenCount == tokenStarts.length)
+            {
+                tokenStarts = Arrays.copyOf(tokenStarts, tokenCount * 2);
+                tokenEnds = Arrays.copyOf(tokenEnds, tokenCount * 2);
+            }
+            tokenStarts[tokenCount] = tokenStart;
+            tokenEnds[tokenCount] = pos;
+            tokenCount++;
+        }
+    }
+
+    /**
+     * Appends the next physical line to the text buffer, without its terminator.
+     * @return the length of the line, or -1 at the end of the file
+     */
+    private int readRawLine() throws IOException
+    {
+        int start = textLength;
+        boolean read = false;
+        while (true)
+        {
+            if (bufferPos >= bufferEnd)
+            {
+                bufferPos = 0;
+                bufferEnd = reader.read(buffer, 0, buffer.length);
+                if (bufferEnd <= 0)
+                {
+                    bufferEnd = 0;
+                    return read ? textLength - start : -1;
+                }
+            }
+
+            char c = buffer[bufferPos++];
+            if (skipLF)
+            {
+                skipLF = false;
+                if (c == '\n')
+                    continue;
+            }
+            read = true;
+
+            if (c == '\n')
+                return textLength - start;
+            if (c == '\r')
+            {
+                skipLF = true;
+                return textLength - start;
+            }
+
+            if (textLength == text.length)
+                text = Arrays.copyOf(text, text.length * 2);
+            text[textLength++] = c;
+        }
     }
 
     @Override
     public void close() throws Exception
     {
-        lineReader.close();
-        lineStream.close();
+        reader.close();
     }
 }
@@ -19,7 +19,6 @@
 
 package net.minecraftforge.client.model.obj;
 
-import com.google.common.collect.Maps;
 import com.google.gson.JsonDeserializationContext;
 import com.google.gson.JsonObject;
 import net.minecraft.client.Minecraft;
@@ -32,15 +31,17 @@ import net.minecraftforge.client.model.IModelLoader;
 import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class OBJLoader implements IModelLoader<OBJModel>
 {
     public static OBJLoader INSTANCE = new OBJLoader();
 
-    private final Map<OBJModel.ModelSettings, OBJModel> modelCache = Maps.newHashMap();
-    private final Map<ResourceLocation, MaterialLibrary> materialCache = Maps.newHashMap();
+    // Concurrent so models can be loaded from parallel loaders; each entry is only parsed once
+    private final Map<OBJModel.ModelSettings, OBJModel> modelCache = new ConcurrentHashMap<>();
+    private final Map<ResourceLocation, MaterialLibrary> materialCache = new ConcurrentHashMap<>();
 
-    private IResourceManager manager = Minecraft.getInstance().getResourceManager();
+    private volatile IResourceManager manager = Minecraft.getInstance().getResourceManager();
 
     @Override
     public void onResourceManagerReload(IResourceManager resourceManager)
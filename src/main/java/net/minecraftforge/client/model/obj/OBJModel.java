@@ -113,17 +113,16 @@ public class OBJModel implements IMultipartModelGeometry<OBJModel>
                 mtllib = OBJLoader.INSTANCE.loadMaterialLibrary(new ResourceLocation(modelDomain, modelPath + lib));
         }
 
-        String[] line;
-        while((line = reader.readAndSplitLine(true)) != null)
+        while(reader.nextLine(true))
         {
-            switch(line[0])
+            switch(reader.getKeyword())
             {
                 case "mtllib": // Loads material library
                 {
                     if (materialLibraryOverrideLocation != null)
                         break;
 
-                    String lib = line[1];
+                    String lib = reader.getToken(1);
                     if (lib.contains(":"))
                         mtllib = OBJLoader.INSTANCE.loadMaterialLibrary(new ResourceLocation(lib));
                     else
@@ -133,6 +132,7 @@ public class OBJModel implements IMultipartModelGeometry<OBJModel>
 
                 case "usemtl": // Sets the current material (starts new mesh)
                 {
+                    String[] line = reader.readTokens();
                     String mat = Strings.join(Arrays.copyOfRange(line, 1, line.length), " ");
                     MaterialLibrary.Material newMat = mtllib.getMaterial(mat);
                     if (!Objects.equals(newMat, currentMat))
@@ -152,16 +152,16 @@ public class OBJModel implements IMultipartModelGeometry<OBJModel>
                 }
 
                 case "v": // Vertex
-                    positions.add(parseVector4To3(line));
+                    positions.add(parseVector4To3(reader));
                     break;
                 case "vt": // Vertex texcoord
-                    texCoords.add(parseVector2(line));
+                    texCoords.add(parseVector2(reader));
                     break;
                 case "vn": // Vertex normal
-                    normals.add(parseVector3(line));
+                    normals.add(parseVector3(reader));
                     break;
                 case "vc": // Vertex color (non-standard)
-                    colors.add(parseVector4(line));
+                    colors.add(parseVector4(reader));
                     break;
 
                 case "f": // Face
@@ -184,12 +184,10 @@ public class OBJModel implements IMultipartModelGeometry<OBJModel>
                         }
                     }
 
-                    int[][] vertices = new int[line.length-1][];
+                    int[][] vertices = new int[reader.getTokenCount()-1][];
                     for(int i=0;i<vertices.length;i++)
                     {
-                        String vertexData = line[i+1];
-                        String[] vertexParts = vertexData.split("/");
-                        int[] vertex = Arrays.stream(vertexParts).mapToInt(num -> Strings.isNullOrEmpty(num) ? 0 : Integer.parseInt(num)).toArray();
+                        int[] vertex = reader.parseIndices(i+1);
                         if (vertex[0] < 0) vertex[0] = positions.size() + vertex[0];
                         else vertex[0]--;
                         if (vertex.length > 1)
@@ -217,7 +215,7 @@ public class OBJModel implements IMultipartModelGeometry<OBJModel>
 
                 case "s": // Smoothing group (starts new mesh)
                 {
-                    String smoothingGroup = "off".equals(line[1]) ? null : line[1];
+                    String smoothingGroup = reader.tokenEquals(1, "off") ? null : reader.getToken(1);
                     if (!Objects.equals(currentSmoothingGroup, smoothingGroup))
                     {
                         currentSmoothingGroup = smoothingGroup;
@@ -236,7 +234,7 @@ public class OBJModel implements IMultipartModelGeometry<OBJModel>
 
                 case "g":
                 {
-                    String name = line[1];
+                    String name = reader.getToken(1);
                     if (objAboveGroup)
                     {
                         currentObject = new ModelObject(currentGroup.name() + "/" + name);
@@ -255,7 +253,7 @@ public class OBJModel implements IMultipartModelGeometry<OBJModel>
 
                 case "o":
                 {
-                    String name = line[1];
+                    String name = reader.getToken(1);
                     if (objAboveGroup || currentGroup == null)
                     {
                         objAboveGroup = true;
@@ -296,6 +294,55 @@ public class OBJModel implements IMultipartModelGeometry<OBJModel>
         }
     }
 
+    public static Vector3f parseVector4To3(LineReader line)
+    {
+        switch (line.getTokenCount()) {
+            case 1: return new Vector3f(0,0,0);
+            case 2: return new Vector3f(line.parseFloat(1), 0, 0);
+            case 3: return new Vector3f(line.parseFloat(1), line.parseFloat(2), 0);
+            case 4: return new Vector3f(line.parseFloat(1), line.parseFloat(2), line.parseFloat(3));
+            default:
+            {
+                Vector4f vec4 = parseVector4(line);
+                return new Vector3f(
+                        vec4.getX() / vec4.getW(),
+                        vec4.getY() / vec4.getW(),
+                        vec4.getZ() / vec4.getW()
+                );
+            }
+        }
+    }
+
+    public static Vec2f parseVector2(LineReader line)
+    {
+        switch (line.getTokenCount()) {
+            case 1: return new Vec2f(0,0);
+            case 2: return new Vec2f(line.parseFloat(1), 0);
+            default: return new Vec2f(line.parseFloat(1), line.parseFloat(2));
+        }
+    }
+
+    public static Vector3f parseVector3(LineReader line)
+    {
+        switch (line.getTokenCount()) {
+            case 1: return new Vector3f(0,0,0);
+            case 2: return new Vector3f(line.parseFloat(1), 0, 0);
+            case 3: return new Vector3f(line.parseFloat(1), line.parseFloat(2), 0);
+            default: return new Vector3f(line.parseFloat(1), line.parseFloat(2), line.parseFloat(3));
+        }
+    }
+
+    public static Vector4f parseVector4(LineReader line)
+    {
+        switch (line.getTokenCount()) {
+            case 1: return new Vector4f(0,0,0,1);
+            case 2: return new Vector4f(line.parseFloat(1), 0, 0,1);
+            case 3: return new Vector4f(line.parseFloat(1), line.parseFloat(2), 0,1);
+            case 4: return new Vector4f(line.parseFloat(1), line.parseFloat(2), line.parseFloat(3),1);
+            default: return new Vector4f(line.parseFloat(1), line.parseFloat(2), line.parseFloat(3), line.parseFloat(4));
+        }
+    }
+
     public static Vec2f parseVector2(String[] line)
     {
         switch (line.length) {
@@ -20,6 +20,7 @@
 package net.minecraftforge.common;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
@@ -46,6 +47,7 @@ public class BiomeDictionary
     {
 
         private static final Map<String, Type> byName = new HashMap<String, Type>();
+        private static final List<Type> byOrdinal = new ArrayList<Type>();
         private static Collection<Type> allTypes = Collections.unmodifiableCollection(byName.values());
 
         /*Temperature-based tags. Specifying neither implies a biome is temperate*/
@@ -102,6 +104,7 @@ public class BiomeDictionary
         public static final Type END = new Type("END");
 
         private final String name;
+        private final int ordinal;
         private final List<Type> subTypes;
         private final Set<Biome> biomes = new HashSet<Biome>();
         private final Set<Biome> biomesUn = Collections.unmodifiableSet(biomes);
@@ -109,9 +112,11 @@ public class BiomeDictionary
         private Type(String name, Type... subTypes)
         {
             this.name = name;
+            this.ordinal = byOrdinal.size();
             this.subTypes = ImmutableList.copyOf(subTypes);
 
             byName.put(name, this);
+            byOrdinal.add(this);
         }
 
         /**
@@ -175,13 +180,115 @@ public class BiomeDictionary
     }
 
     private static final Map<ResourceLocation, BiomeInfo> biomeInfoMap = new HashMap<ResourceLocation, BiomeInfo>();
+    // Lock free lookup for the type queries. Entries are shared with biomeInfoMap, so overridden biomes keep their types.
+    private static final Map<Biome, BiomeInfo> biomeInfoCache = new ConcurrentHashMap<Biome, BiomeInfo>();
 
     private static class BiomeInfo
     {
 
-        private final Set<Type> types = new HashSet<Type>();
-        private final Set<Type> typesUn = Collections.unmodifiableSet(this.types);
+        // Bit set of Type ordinals. Replaced rather than modified, so readers never see a half updated set.
+        private volatile long[] types = new long[1];
+        private final Set<Type> typesUn = new AbstractSet<Type>()
+        {
+            @Override
+            public boolean contains(Object o)
+            {
+                return o instanceof Type && has((Type)o);
+            }
+
+            @Override
+            public int size()
+            {
+                int size = 0;
+                for (long word : types)
+                    size += Long.bitCount(word);
+                return size;
+            }
+
+            @Override
+            public Iterator<Type> iterator()
+            {
+                long[] bits = types;
+                return new Iterator<Type>()
+                {
+                    private int next = nextSetBit(bits, 0);
+
+                    @Override
+                    public boolean hasNext()
+                    {
+                        return next >= 0;
+                    }
+
+                    @Override
+                    public Type next()
+                    {
+                        if (next < 0)
+                            throw new NoSuchElementException();
+                        Type ret = Type.byOrdinal.get(next);
+                        next = nextSetBit(bits, next + 1);
+                        return ret;
+                    }
+                };
+            }
+        };
+
+        private boolean has(Type type)
+        {
+            long[] bits = types;
+            int word = type.ordinal >>> 6;
+            return word < bits.length && (bits[word] & (1L << type.ordinal)) != 0;
+        }
 
+        private boolean isEmpty()
+        {
+            for (long word : types)
+            {
+                if (word != 0)
+                    return false;
+            }
+            return true;
+        }
+
+        private void add(Collection<Type> added)
+        {
+            long[] bits = types.clone();
+            for (Type type : added)
+            {
+                int word = type.ordinal >>> 6;
+                if (word >= bits.length)
+                    bits = Arrays.copyOf(bits, word + 1);
+                bits[word] |= 1L << type.ordinal;
+            }
+            types = bits;
+        }
+
+        private boolean intersects(BiomeInfo other)
+        {
+            long[] a = types;
+            long[] b = other.types;
+            for (int i = Math.min(a.length, b.length) - 1; i >= 0; i--)
+            {
+                if ((a[i] & b[i]) != 0)
+                    return true;
+            }
+            return false;
+        }
+
+        private static int nextSetBit(long[] bits, int from)
+        {
+            int word = from >>> 6;
+            if (word >= bits.length)
+                return -1;
+            long current = bits[word] & (-1L << from);
+            while (true)
+            {
+                if (current != 0)
+                    return (word << 6) + Long.numberOfTrailingZeros(current);
+                if (++word == bits.length)
+                    return -1;
+                current = bits[word];
+            }
+        }
     }
 
     static
@@ -193,7 +300,7 @@ public class BiomeDictionary
      * Adds the given types to the biome.
      *
      */
-    public static void addTypes(Biome biome, Type... types)
+    public static synchronized void addTypes(Biome biome, Type... types)
     {
         Preconditions.checkArgument(ForgeRegistries.BIOMES.containsValue(biome), "Cannot add types to unregistered biome %s", biome);
 
@@ -205,9 +312,7 @@ public class BiomeDictionary
             type.biomes.add(biome);
         }
 
-        BiomeInfo biomeInfo = getBiomeInfo(biome);
-        Collections.addAll(biomeInfo.types, types);
-        biomeInfo.types.addAll(supertypes);
+        getBiomeInfo(biome).add(supertypes);
     }
 
     /**
@@ -227,8 +332,7 @@ public class BiomeDictionary
     @Nonnull
     public static Set<Type> getTypes(Biome biome)
     {
-        ensureHasTypes(biome);
-        return getBiomeInfo(biome).typesUn;
+        return getTypesInfo(biome).typesUn;
     }
 
     /**
@@ -238,15 +342,7 @@ public class BiomeDictionary
      */
     public static boolean areSimilar(Biome biomeA, Biome biomeB)
     {
-        for (Type type : getTypes(biomeA))
-        {
-            if (getTypes(biomeB).contains(type))
-            {
-                return true;
-            }
-        }
-
-        return false;
+        return getTypesInfo(biomeA).intersects(getTypesInfo(biomeB));
     }
 
     /**
@@ -255,7 +351,7 @@ public class BiomeDictionary
      */
     public static boolean hasType(Biome biome, Type type)
     {
-        return getTypes(biome).contains(type);
+        return getTypesInfo(biome).has(type);
     }
 
     /**
@@ -264,7 +360,7 @@ public class BiomeDictionary
      */
     public static boolean hasAnyType(Biome biome)
     {
-        return !getBiomeInfo(biome).types.isEmpty();
+        return !getBiomeInfo(biome).isEmpty();
     }
 
     /**
@@ -332,18 +428,38 @@ public class BiomeDictionary
     //Internal implementation
     private static BiomeInfo getBiomeInfo(Biome biome)
     {
-        return biomeInfoMap.computeIfAbsent(biome.getRegistryName(), k -> new BiomeInfo());
+        BiomeInfo info = biomeInfoCache.get(biome);
+        if (info == null)
+        {
+            synchronized (biomeInfoMap)
+            {
+                info = biomeInfoMap.computeIfAbsent(biome.getRegistryName(), k -> new BiomeInfo());
+            }
+            biomeInfoCache.put(biome, info);
+        }
+        return info;
+    }
+
+    /**
+     * Gets the biome's info, guessing its types first if it has none.
+     */
+    private static BiomeInfo getTypesInfo(Biome biome)
+    {
+        BiomeInfo info = getBiomeInfo(biome);
+        if (info.isEmpty())
+            ensureHasTypes(biome);
+        return info;
     }
 
     /**
      * Ensure that at least one type has been added to the given biome.
      */
-    static void ensureHasTypes(Biome biome)
+    static synchronized void ensureHasTypes(Biome biome)
     {
         if (!hasAnyType(biome))
         {
             makeBestGuess(biome);
-            LOGGER.warn("No types have been added to Biome {}, types have been assigned on a best-effort guess: {}", biome.getRegistryName(), !getBiomeInfo(biome).types.isEmpty() ? getBiomeInfo(biome).types : "could not guess types");
+            LOGGER.warn("No types have been added to Biome {}, types have been assigned on a best-effort guess: {}", biome.getRegistryName(), !getBiomeInfo(biome).isEmpty() ? getBiomeInfo(biome).typesUn : "could not guess types");
         }
     }
 
@@ -52,6 +52,12 @@ public class ForgeConfig
 
         public final BooleanValue fixAdvancementLoading;
 
+        public final IntValue chunkGenMaxInFlight;
+
+        public final IntValue chunkGenMaxPendingSaves;
+
+        public final IntValue chunkGenMaxTickTime;
+
         Server(ForgeConfigSpec.Builder builder) {
             builder.comment("Server configuration settings")
                    .push("server");
@@ -116,6 +122,21 @@ public class ForgeConfig
                     .comment("Fix advancement loading to use a proper topological sort. This may have visibility side-effects and can thus be turned off if needed for data-pack compatibility.")
                     .translation("forge.configgui.fixAdvancementLoading")
                     .define("fixAdvancementLoading", true);
+
+            chunkGenMaxInFlight = builder
+                    .comment("The maximum number of chunks /forge generate asks the server to generate at the same time.")
+                    .translation("forge.configgui.chunkGenMaxInFlight")
+                    .defineInRange("chunkGenMaxInFlight", 16, 1, 1024);
+
+            chunkGenMaxPendingSaves = builder
+                    .comment("/forge generate stops requesting new chunks while more than this many generated chunks are still waiting to be unloaded and saved.")
+                    .translation("forge.configgui.chunkGenMaxPendingSaves")
+                    .defineInRange("chunkGenMaxPendingSaves", 100, 1, Integer.MAX_VALUE);
+
+            chunkGenMaxTickTime = builder
+                    .comment("/forge generate stops requesting new chunks while the average server tick takes longer than this many milliseconds.")
+                    .translation("forge.configgui.chunkGenMaxTickTime")
+                    .defineInRange("chunkGenMaxTickTime", 45, 1, Integer.MAX_VALUE);
             builder.pop();
         }
     }
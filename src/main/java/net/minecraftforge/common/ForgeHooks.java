@@ -117,7 +117,6 @@ import net.minecraft.world.dimension.DimensionType;
 import net.minecraft.world.storage.loot.LootContext;
 import net.minecraft.world.storage.loot.LootTable;
 import net.minecraft.world.storage.loot.LootTableManager;
-import net.minecraftforge.common.loot.IGlobalLootModifier;
 import net.minecraftforge.common.loot.LootModifierManager;
 import net.minecraftforge.common.util.BlockSnapshot;
 import net.minecraftforge.event.AnvilUpdateEvent;
@@ -1195,10 +1194,7 @@ public class ForgeHooks
      */
     public static List<ItemStack> modifyLoot(List<ItemStack> list, LootContext context) {
         LootModifierManager man = context.getWorld().getServer().getLootModifierManager();
-        for(IGlobalLootModifier mod : man.getAllLootMods()) {
-            list = mod.apply(list, context);
-        }
-        return list;
+        return man.modifyLoot(list, context);
     }
 
 }
@@ -23,12 +23,23 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.HashMap;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.annotation.Nullable;
 
@@ -52,17 +63,43 @@ import org.apache.logging.log4j.MarkerManager;
  * last known username.<br>
  * For convenience, {@link #getMap()} is provided to get an immutable copy of
  * the caches underlying map.
+ * <p>
+ * Changes are appended to <code>usernamecache.journal</code> a few seconds after
+ * they happen, and folded back into <code>usernamecache.json</code> once the
+ * journal grows larger than the cache itself.
  */
 public final class UsernameCache {
 
-    private static Map<UUID, String> map = new HashMap<>();
+    private static final Map<UUID, String> map = new ConcurrentHashMap<>();
 
     private static final Path saveFile = FMLLoader.getGamePath().resolve("usernamecache.json");
+    private static final Path journalFile = FMLLoader.getGamePath().resolve("usernamecache.journal");
     private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
 
     private static final Logger LOGGER = LogManager.getLogger(UsernameCache.class);
     private static final Marker USRCACHE = MarkerManager.getMarker("USERNAMECACHE");
 
+    /** Seconds to wait after a change before writing it, so bursts of logins share one write */
+    private static final long FLUSH_DELAY = 2;
+    /** The journal is never compacted while it has fewer entries than this */
+    private static final int MIN_COMPACT_ENTRIES = 1024;
+
+    // Journal lines not written yet, in the order the changes were made to the map
+    private static final Queue<String> pending = new ConcurrentLinkedQueue<>();
+    private static final AtomicBoolean flushScheduled = new AtomicBoolean();
+    // Guarded by saveFile
+    private static int journalEntries;
+    private static final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "Forge Username Cache");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static
+    {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> flush(false), "Forge Username Cache Shutdown"));
+    }
+
     private UsernameCache() {}
 
     /**
@@ -80,8 +117,12 @@ public final class UsernameCache {
 
         if (username.equals(map.get(uuid))) return;
 
-        map.put(uuid, username);
-        save();
+        synchronized (pending)
+        {
+            map.put(uuid, username);
+            pending.add(uuid + " " + username);
+        }
+        scheduleFlush();
     }
 
     /**
@@ -95,13 +136,14 @@ public final class UsernameCache {
     {
         Objects.requireNonNull(uuid);
 
-        if (map.remove(uuid) != null)
+        synchronized (pending)
         {
-            save();
-            return true;
+            if (map.remove(uuid) == null)
+                return false;
+            pending.add(uuid.toString());
         }
-
-        return false;
+        scheduleFlush();
+        return true;
     }
 
     /**
@@ -145,17 +187,95 @@ public final class UsernameCache {
     }
 
     /**
-     * Save the cache to file
+     * Save the cache to file, folding the journal into it
      */
     protected static void save()
     {
-        new SaveThread(gson.toJson(map)).start();
+        executor.execute(() -> flush(true));
+    }
+
+    private static void scheduleFlush()
+    {
+        if (flushScheduled.compareAndSet(false, true))
+            executor.schedule(() -> flush(false), FLUSH_DELAY, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Appends the pending changes to the journal, and compacts it if it has grown too large
+     */
+    private static void flush(boolean compact)
+    {
+        // Cleared first so a change made while writing schedules another flush
+        flushScheduled.set(false);
+
+        // Make sure we don't save when another thread is still saving
+        synchronized (saveFile)
+        {
+            List<String> lines = new ArrayList<>();
+            for (String line; (line = pending.poll()) != null;)
+                lines.add(line);
+
+            if (!lines.isEmpty())
+            {
+                try
+                {
+                    Files.write(journalFile, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                    journalEntries += lines.size();
+                }
+                catch (IOException e)
+                {
+                    LOGGER.error(USRCACHE, "Failed to append to username cache journal, rewriting the cache instead", e);
+                    compact = true;
+                }
+            }
+
+            if (compact || journalEntries > Math.max(MIN_COMPACT_ENTRIES, map.size()))
+                compact();
+        }
+    }
+
+    /**
+     * Writes the whole map to the save file and drops the journal. Changes still pending are
+     * already in the map, and replaying them over the new file later gives the same result.
+     */
+    private static void compact()
+    {
+        Path tmp = saveFile.resolveSibling(saveFile.getFileName() + ".tmp");
+        try
+        {
+            Files.write(tmp, gson.toJson(map).getBytes(StandardCharsets.UTF_8));
+            try
+            {
+                Files.move(tmp, saveFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            catch (AtomicMoveNotSupportedException e)
+            {
+                Files.move(tmp, saveFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.deleteIfExists(journalFile);
+            journalEntries = 0;
+        }
+        catch (IOException e)
+        {
+            LOGGER.error(USRCACHE, "Failed to save username cache to file!", e);
+        }
     }
 
     /**
      * Load the cache from file
      */
     protected static void load()
+    {
+        synchronized (saveFile)
+        {
+            map.clear();
+            journalEntries = 0;
+            loadSaveFile();
+            loadJournal();
+        }
+    }
+
+    private static void loadSaveFile()
     {
         if (!Files.exists(saveFile)) return;
 
@@ -163,7 +283,13 @@ public final class UsernameCache {
         {
             @SuppressWarnings("serial")
             Type type = new TypeToken<Map<UUID, String>>(){}.getType();
-            map = gson.fromJson(reader, type);
+            Map<UUID, String> loaded = gson.fromJson(reader, type);
+            // Can sometimes be null when the json file is malformed
+            if (loaded != null)
+                loaded.forEach((uuid, name) -> {
+                    if (uuid != null && name != null)
+                        map.put(uuid, name);
+                });
         }
         catch (JsonSyntaxException | IOException e)
         {
@@ -177,45 +303,43 @@ public final class UsernameCache {
                 LOGGER.error(USRCACHE,"Could not delete file {}", saveFile.toString());
             }
         }
-        finally
-        {
-            // Can sometimes occur when the json file is malformed
-            if (map == null)
-            {
-                map = new HashMap<>();
-            }
-        }
     }
 
-    /**
-     * Used for saving the {@link com.google.gson.Gson#toJson(Object) Gson}
-     * representation of the cache to disk
-     */
-    private static class SaveThread extends Thread {
-
-        /** The data that will be saved to disk */
-        private final String data;
-
-        public SaveThread(String data)
-        {
-            this.data = data;
-        }
+    private static void loadJournal()
+    {
+        if (!Files.exists(journalFile)) return;
 
-        @Override
-        public void run()
+        int invalid = 0;
+        try (final BufferedReader reader = Files.newBufferedReader(journalFile, Charsets.UTF_8))
         {
-            try
+            for (String line; (line = reader.readLine()) != null;)
             {
-                // Make sure we don't save when another thread is still saving
-                synchronized (saveFile)
+                line = line.trim();
+                if (line.isEmpty())
+                    continue;
+                journalEntries++;
+
+                int space = line.indexOf(' ');
+                try
                 {
-                    Files.write(saveFile, data.getBytes(StandardCharsets.UTF_8));
+                    UUID uuid = UUID.fromString(space < 0 ? line : line.substring(0, space));
+                    if (space < 0)
+                        map.remove(uuid);
+                    else
+                        map.put(uuid, line.substring(space + 1));
+                }
+                catch (IllegalArgumentException e)
+                {
+                    invalid++;
                 }
             }
-            catch (IOException e)
-            {
-                LOGGER.error(USRCACHE, "Failed to save username cache to file!", e);
-            }
         }
+        catch (IOException e)
+        {
+            LOGGER.error(USRCACHE, "Could not read username cache journal {}", journalFile, e);
+        }
+
+        if (invalid > 0)
+            LOGGER.warn(USRCACHE, "Skipped {} invalid lines in username cache journal {}", invalid, journalFile);
     }
 }
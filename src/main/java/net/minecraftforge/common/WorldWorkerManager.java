@@ -21,67 +21,141 @@ package net.minecraftforge.common;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import com.google.common.collect.ImmutableList;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Runs {@link IWorker}s in the time left over at the end of each server tick.
+ *
+ * Workers are scheduled by fair share: each worker accumulates the time it has used, scaled down by its
+ * {@link IWorker#getPriority() priority}, and the worker that has used the least is always run next. A worker
+ * can also cap the time it gets in a single tick with {@link IWorker#getMaxTickTime()}. Workers that declare
+ * themselves {@link IWorker#isThreadSafe() thread safe} are run on a background pool instead, so they do not
+ * compete for server thread time at all.
+ */
 public class WorldWorkerManager
 {
-    private static List<IWorker> workers = new ArrayList<IWorker>();
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final long TICK_TIME = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long MIN_TICK_TIME = TimeUnit.MILLISECONDS.toNanos(10); //If ticks are lagging, give us at least 10ms to do something.
+
+    private static List<WorkerEntry> workers = new ArrayList<>();
+    private static final List<WorkerEntry> runnable = new ArrayList<>();
+    private static ExecutorService backgroundPool;
     private static long startTime = -1;
-    private static int index = 0;
 
     public static void tick(boolean start)
     {
         if (start)
         {
-            startTime = System.currentTimeMillis();
+            startTime = System.nanoTime();
             return;
         }
 
-        index = 0;
-        IWorker task = getNext();
-        if (task == null)
-            return;
+        long budget = TICK_TIME - (System.nanoTime() - startTime);
+        if (budget < MIN_TICK_TIME)
+            budget = MIN_TICK_TIME;
+        long deadline = System.nanoTime() + budget;
 
-        long time = 50 - (System.currentTimeMillis() - startTime);
-        if (time < 10)
-            time = 10; //If ticks are lagging, give us at least 10ms to do something.
-        time += System.currentTimeMillis();
+        runnable.clear();
+        synchronized (WorldWorkerManager.class)
+        {
+            for (WorkerEntry entry : workers)
+            {
+                if (entry.worker.isThreadSafe())
+                {
+                    entry.submit(getBackgroundPool(), budget);
+                }
+                else
+                {
+                    entry.tickTime = 0;
+                    runnable.add(entry);
+                }
+            }
+        }
 
-        while (System.currentTimeMillis() < time && task != null)
+        while (!runnable.isEmpty())
         {
-            boolean again = task.doWork();
+            long now = System.nanoTime();
+            if (now >= deadline)
+                break;
 
-            if (!task.hasWork())
+            WorkerEntry entry = runnable.get(0);
+            for (int x = 1; x < runnable.size(); x++)
             {
-                remove(task);
-                task = getNext();
+                if (runnable.get(x).virtualTime < entry.virtualTime)
+                    entry = runnable.get(x);
             }
-            else if (!again)
+
+            boolean again = entry.worker.doWork();
+            long elapsed = System.nanoTime() - now;
+            entry.record(elapsed);
+
+            if (!entry.worker.hasWork())
             {
-                task = getNext();
+                runnable.remove(entry);
+                remove(entry);
+            }
+            else if (!again || (entry.worker.getMaxTickTime() > 0 && entry.tickTime >= entry.worker.getMaxTickTime()))
+            {
+                runnable.remove(entry);
             }
         }
+        runnable.clear();
     }
 
     public static synchronized void addWorker(IWorker worker)
     {
-        workers.add(worker);
+        WorkerEntry entry = new WorkerEntry(worker);
+        // Start new workers level with the least served existing one, so they neither starve nor get starved
+        entry.virtualTime = workers.stream().mapToLong(e -> e.virtualTime).min().orElse(0);
+        workers = ImmutableList.<WorkerEntry>builder().addAll(workers).add(entry).build();
+    }
+
+    private static synchronized void remove(WorkerEntry entry)
+    {
+        entry.removed = true;
+        List<WorkerEntry> ret = new ArrayList<>(workers);
+        ret.remove(entry);
+        workers = ImmutableList.copyOf(ret);
     }
 
-    private static synchronized IWorker getNext()
+    private static synchronized ExecutorService getBackgroundPool()
     {
-        return workers.size() > index ? workers.get(index++) : null;
+        if (backgroundPool == null)
+        {
+            AtomicInteger count = new AtomicInteger();
+            backgroundPool = Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors() / 2), r -> {
+                Thread thread = new Thread(r, "Forge World Worker-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return backgroundPool;
     }
 
-    private static synchronized void remove(IWorker worker)
+    /**
+     * @return A snapshot of the timing statistics of every registered worker
+     */
+    public static synchronized List<WorkerStats> getStats()
     {
-        workers.remove(worker);
-        index--;
+        ImmutableList.Builder<WorkerStats> ret = ImmutableList.builder();
+        for (WorkerEntry entry : workers)
+            ret.add(entry.getStats());
+        return ret.build();
     }
 
     //Internal only, used to clear everything when the server shuts down.
     public static synchronized void clear()
     {
-        workers.clear();
+        workers.forEach(e -> e.removed = true);
+        workers = ImmutableList.of();
     }
 
     public static interface IWorker
@@ -93,5 +167,165 @@ public class WorldWorkerManager
          * Returning false will skip calling this worker until next tick.
          */
         boolean doWork();
+
+        /**
+         * The share of the available time this worker gets relative to other workers. A worker with a priority of 2
+         * is given twice as much time as one with priority 1 when both have work to do.
+         */
+        default int getPriority()
+        {
+            return 1;
+        }
+
+        /**
+         * The maximum time, in nanoseconds, this worker may use in a single tick. Zero or less means no limit
+         * beyond the time left over in the tick.
+         */
+        default long getMaxTickTime()
+        {
+            return 0;
+        }
+
+        /**
+         * Return true if {@link #doWork()} and {@link #hasWork()} may be called from a thread other than the server thread.
+         * Such workers are run on a background pool, and never more than one thread at a time.
+         */
+        default boolean isThreadSafe()
+        {
+            return false;
+        }
+
+        /**
+         * A human readable name used when reporting worker statistics.
+         */
+        default String getName()
+        {
+            return getClass().getName();
+        }
+    }
+
+    public static class WorkerStats
+    {
+        private final String name;
+        private final int priority;
+        private final boolean threadSafe;
+        private final long calls;
+        private final long totalTime;
+        private final long maxTime;
+
+        private WorkerStats(String name, int priority, boolean threadSafe, long calls, long totalTime, long maxTime)
+        {
+            this.name = name;
+            this.priority = priority;
+            this.threadSafe = threadSafe;
+            this.calls = calls;
+            this.totalTime = totalTime;
+            this.maxTime = maxTime;
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+
+        public int getPriority()
+        {
+            return priority;
+        }
+
+        public boolean isThreadSafe()
+        {
+            return threadSafe;
+        }
+
+        /**
+         * @return The number of times {@link IWorker#doWork()} was called
+         */
+        public long getCalls()
+        {
+            return calls;
+        }
+
+        /**
+         * @return The total time spent in {@link IWorker#doWork()}, in nanoseconds
+         */
+        public long getTotalTime()
+        {
+            return totalTime;
+        }
+
+        /**
+         * @return The longest single call to {@link IWorker#doWork()}, in nanoseconds
+         */
+        public long getMaxTime()
+        {
+            return maxTime;
+        }
+    }
+
+    private static class WorkerEntry
+    {
+        private final IWorker worker;
+        private long virtualTime;
+        private long tickTime;
+        private long calls;
+        private long totalTime;
+        private long maxTime;
+        private volatile boolean running;
+        private volatile boolean removed;
+
+        private WorkerEntry(IWorker worker)
+        {
+            this.worker = worker;
+        }
+
+        private synchronized void record(long elapsed)
+        {
+            tickTime += elapsed;
+            virtualTime += elapsed / Math.max(1, worker.getPriority());
+            calls++;
+            totalTime += elapsed;
+            if (elapsed > maxTime)
+                maxTime = elapsed;
+        }
+
+        private synchronized WorkerStats getStats()
+        {
+            return new WorkerStats(worker.getName(), worker.getPriority(), worker.isThreadSafe(), calls, totalTime, maxTime);
+        }
+
+        private void submit(ExecutorService pool, long budget)
+        {
+            if (running)
+                return;
+            running = true;
+            pool.execute(() -> {
+                try
+                {
+                    long deadline = System.nanoTime() + Math.min(budget, worker.getMaxTickTime() > 0 ? worker.getMaxTickTime() : budget);
+                    boolean again = true;
+                    while (again && !removed && System.nanoTime() < deadline)
+                    {
+                        long start = System.nanoTime();
+                        again = worker.doWork();
+                        record(System.nanoTime() - start);
+                        if (!worker.hasWork())
+                        {
+                            remove(this);
+                            break;
+                        }
+                    }
+                }
+                catch (Throwable t)
+                {
+                    LOGGER.error("Background world worker {} failed, removing it", worker.getName(), t);
+                    remove(this);
+                }
+                finally
+                {
+                    running = false;
+                }
+            });
+        }
     }
 }
@@ -146,11 +146,21 @@ public class Capability<T>
     private final String name;
     private final IStorage<T> storage;
     private final Callable<? extends T> factory;
+    private final int id;
 
-    Capability(String name, IStorage<T> storage, Callable<? extends T> factory)
+    Capability(String name, IStorage<T> storage, Callable<? extends T> factory, int id)
     {
         this.name = name;
         this.storage = storage;
         this.factory = factory;
+        this.id = id;
+    }
+
+    /**
+     * A small, dense, per session index of this capability, in registration order. Used for array based lookups.
+     */
+    int getId()
+    {
+        return id;
     }
 }
@@ -22,10 +22,17 @@ package net.minecraftforge.common.capabilities;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.MapMaker;
 
 import mcp.MethodsReturnNonnullByDefault;
 import net.minecraft.nbt.INBT;
@@ -34,6 +41,7 @@ import net.minecraft.util.Direction;
 import net.minecraft.util.ResourceLocation;
 import net.minecraftforge.common.util.INBTSerializable;
 import net.minecraftforge.common.util.LazyOptional;
+import net.minecraftforge.common.util.NonNullConsumer;
 
 /**
  * A high-speed implementation of a capability delegator.
@@ -44,15 +52,28 @@ import net.minecraftforge.common.util.LazyOptional;
  *
  * Internally the handlers are baked into arrays for fast iteration.
  * The ResourceLocations will be used for the NBT Key when serializing.
+ *
+ * If every provider is a {@link ICacheableCapabilityProvider}, lookups are
+ * also cached per capability and side until the returned LazyOptional or
+ * this dispatcher is invalidated.
  */
 @ParametersAreNonnullByDefault
 @MethodsReturnNonnullByDefault
 public final class CapabilityDispatcher implements INBTSerializable<CompoundNBT>, ICapabilityProvider
 {
+    private static final int SIDES = Direction.values().length + 1; // Null side included
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<CapabilityDispatcher, LazyOptional[]> CACHE = AtomicReferenceFieldUpdater.newUpdater(CapabilityDispatcher.class, LazyOptional[].class, "cache");
+
     private ICapabilityProvider[] caps;
     private INBTSerializable<INBT>[] writers;
     private String[] names;
     private final List<Runnable> listeners;
+    private final boolean cacheable;
+    private final NonNullConsumer<LazyOptional<Object>> cacheInvalidator = new CacheInvalidator(this);
+    private volatile LazyOptional<?>[] cache;
+    // LazyOptionals the invalidator is already registered on, compared by identity and held weakly
+    private Set<LazyOptional<?>> observed;
 
     public CapabilityDispatcher(Map<ResourceLocation, ICapabilityProvider> list, List<Runnable> listeners)
     {
@@ -91,11 +112,70 @@ public final class CapabilityDispatcher implements INBTSerializable<CompoundNBT>
         caps = lstCaps.toArray(new ICapabilityProvider[lstCaps.size()]);
         writers = lstWriters.toArray(new INBTSerializable[lstWriters.size()]);
         names = lstNames.toArray(new String[lstNames.size()]);
+        cacheable = lstCaps.stream().allMatch(ICacheableCapabilityProvider.class::isInstance);
+    }
+
+    private static int cacheIndex(Capability<?> cap, @Nullable Direction side)
+    {
+        return cap.getId() * SIDES + (side == null ? SIDES - 1 : side.ordinal());
     }
 
 
+    @SuppressWarnings("unchecked")
     @Override
     public <T> LazyOptional<T> getCapability(Capability<T> cap, @Nullable Direction side)
+    {
+        if (!cacheable)
+            return lookupCapability(cap, side);
+
+        final int idx = cacheIndex(cap, side);
+        LazyOptional<?>[] cache = this.cache;
+        if (cache != null && idx < cache.length && cache[idx] != null)
+            return (LazyOptional<T>)cache[idx];
+
+        final LazyOptional<T> ret = lookupCapability(cap, side);
+        final boolean present = ret.isPresent();
+        if (present)
+            observe(ret);
+
+        // Never write into a published array, a concurrent clear or lookup may have replaced it.
+        LazyOptional<?>[] next;
+        do
+        {
+            cache = this.cache;
+            if (cache != null && idx < cache.length && cache[idx] != null)
+                return (LazyOptional<T>)cache[idx];
+            next = cache == null ? new LazyOptional<?>[idx + 1] : Arrays.copyOf(cache, Math.max(cache.length, idx + 1));
+            next[idx] = ret;
+        } while (!CACHE.compareAndSet(this, cache, next));
+
+        if (present && !ret.isPresent())
+            clearCache(); // Invalidated before it was published, so the listener's clear was too early
+        return ret;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void observe(LazyOptional<T> ret)
+    {
+        synchronized (this)
+        {
+            if (observed == null)
+                observed = Collections.newSetFromMap(new MapMaker().weakKeys().makeMap());
+            if (!observed.add(ret))
+                return;
+        }
+        synchronized (ret) // The listener set isn't thread safe, and other dispatchers may share the instance
+        {
+            ret.addListener((NonNullConsumer<LazyOptional<T>>)(Object)cacheInvalidator);
+        }
+    }
+
+    private void clearCache()
+    {
+        this.cache = null;
+    }
+
+    private <T> LazyOptional<T> lookupCapability(Capability<T> cap, @Nullable Direction side)
     {
         for (ICapabilityProvider c : caps)
         {
@@ -132,6 +212,7 @@ public final class CapabilityDispatcher implements INBTSerializable<CompoundNBT>
     @Override
     public void deserializeNBT(CompoundNBT nbt)
     {
+        clearCache();
         for (int x = 0; x < writers.length; x++)
         {
             if (nbt.contains(names[x]))
@@ -145,11 +226,52 @@ public final class CapabilityDispatcher implements INBTSerializable<CompoundNBT>
     {                                                        // Only compares serializeable caps.
         if (other == null) return this.writers.length == 0;  // Done this way so we can do some pre-checks before doing the costly NBT serialization and compare
         if (this.writers.length == 0) return other.writers.length == 0;
-        return this.serializeNBT().equals(other.serializeNBT());
+        if (!Arrays.equals(this.names, other.names)) return this.serializeNBT().equals(other.serializeNBT());
+
+        for (int x = 0; x < writers.length; x++)         // Same providers in the same order, so compare them pairwise
+        {                                                // and only serialize the ones that can't compare themselves.
+            INBTSerializable<INBT> a = this.writers[x];
+            INBTSerializable<INBT> b = other.writers[x];
+            if (a == b) continue;
+            if (a instanceof IComparableCapability && a.getClass() == b.getClass())
+            {
+                IComparableCapability ca = (IComparableCapability)a;
+                IComparableCapability cb = (IComparableCapability)b;
+                if (ca.getComparisonHash() != cb.getComparisonHash() || !ca.isEquivalent(cb))
+                    return false;
+            }
+            else if (!Objects.equals(a.serializeNBT(), b.serializeNBT()))
+            {
+                return false;
+            }
+        }
+        return true;
     }
 
     public void invalidate()
     {
+        clearCache();
         this.listeners.forEach(Runnable::run);
     }
+
+    /**
+     * Only holds the dispatcher weakly, so a long-lived LazyOptional does not keep the object it was queried from alive.
+     */
+    private static class CacheInvalidator implements NonNullConsumer<LazyOptional<Object>>
+    {
+        private final WeakReference<CapabilityDispatcher> owner;
+
+        private CacheInvalidator(CapabilityDispatcher owner)
+        {
+            this.owner = new WeakReference<>(owner);
+        }
+
+        @Override
+        public void accept(LazyOptional<Object> o)
+        {
+            CapabilityDispatcher dispatcher = owner.get();
+            if (dispatcher != null)
+                dispatcher.clearCache();
+        }
+    }
 }
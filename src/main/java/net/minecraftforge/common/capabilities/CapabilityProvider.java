@@ -19,6 +19,8 @@
 
 package net.minecraftforge.common.capabilities;
 
+import java.util.function.Supplier;
+
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
@@ -36,23 +38,100 @@ public abstract class CapabilityProvider<B extends CapabilityProvider<B>> implem
     private @Nullable CapabilityDispatcher capabilities;
     private boolean valid = true;
 
+    private final boolean isLazy;
+    private volatile boolean initialized = false;
+    // The rest of the lazy state is guarded by this
+    private @Nullable Thread gatheringThread = null;
+    private boolean gatherPending = false;
+    private @Nullable Supplier<ICapabilityProvider> lazyParentSupplier = null;
+    private @Nullable CompoundNBT lazyData = null;
+
     protected CapabilityProvider(Class<B> baseClass)
+    {
+        this(baseClass, false);
+    }
+
+    /**
+     * @param isLazy Delay gathering the capabilities until they are first needed, for providers that are
+     *               created in large numbers and rarely queried. Data passed to {@link #deserializeCaps(CompoundNBT)}
+     *               before then is held and applied once they are gathered.
+     */
+    protected CapabilityProvider(Class<B> baseClass, boolean isLazy)
     {
         this.baseClass = baseClass;
+        this.isLazy = isLazy;
     }
 
-    protected final void gatherCapabilities() { gatherCapabilities(null); }
+    protected final void gatherCapabilities() { gatherCapabilities((ICapabilityProvider)null); }
 
     protected final void gatherCapabilities(@Nullable ICapabilityProvider parent)
+    {
+        Supplier<ICapabilityProvider> supplier = parent == null ? null : () -> parent;
+        gatherCapabilities(supplier);
+    }
+
+    /**
+     * @param parent Supplies the parent provider; only called once the capabilities are actually gathered.
+     */
+    protected final void gatherCapabilities(@Nullable Supplier<ICapabilityProvider> parent)
+    {
+        if (isLazy && !initialized)
+        {
+            synchronized (this)
+            {
+                if (!initialized)
+                {
+                    this.gatherPending = true;
+                    this.lazyParentSupplier = parent;
+                    return;
+                }
+            }
+        }
+        doGatherCapabilities(parent == null ? null : parent.get());
+    }
+
+    private void doGatherCapabilities(@Nullable ICapabilityProvider parent)
     {
         this.capabilities = ForgeEventFactory.gatherCapabilities(baseClass, this, parent);
     }
 
     protected final @Nullable CapabilityDispatcher getCapabilities()
     {
+        if (isLazy && !initialized)
+            initializeLazy();
         return this.capabilities;
     }
 
+    /**
+     * Other threads wait here until the gather is done. The gathering thread itself, re-entering from an attach
+     * listener, sees this provider without capabilities, like eager ones do.
+     */
+    private synchronized void initializeLazy()
+    {
+        if (initialized || gatheringThread == Thread.currentThread())
+            return;
+        this.gatheringThread = Thread.currentThread();
+        try
+        {
+            Supplier<ICapabilityProvider> parent = this.lazyParentSupplier;
+            CompoundNBT data = this.lazyData;
+            this.lazyParentSupplier = null;
+            this.lazyData = null;
+            if (gatherPending)
+            {
+                this.gatherPending = false;
+                doGatherCapabilities(parent == null ? null : parent.get());
+                if (data != null && this.capabilities != null)
+                    this.capabilities.deserializeNBT(data);
+            }
+        }
+        finally
+        {
+            this.gatheringThread = null;
+            this.initialized = true;
+        }
+    }
+
     public final boolean areCapsCompatible(CapabilityProvider<B> other)
     {
         return areCapsCompatible(other.getCapabilities());
@@ -78,6 +157,23 @@ public abstract class CapabilityProvider<B extends CapabilityProvider<B>> implem
         }
     }
 
+    /**
+     * Serialized capabilities for a copy of this provider. If they were never gathered, the data that was
+     * going to be loaded into them is handed over instead, so neither provider has to gather them.
+     */
+    protected final @Nullable CompoundNBT serializeCapsForCopy()
+    {
+        if (isLazy && !initialized)
+        {
+            synchronized (this)
+            {
+                if (!initialized)
+                    return lazyData == null ? null : lazyData.copy();
+            }
+        }
+        return serializeCaps();
+    }
+
     protected final @Nullable CompoundNBT serializeCaps()
     {
         final CapabilityDispatcher disp = getCapabilities();
@@ -90,6 +186,17 @@ public abstract class CapabilityProvider<B extends CapabilityProvider<B>> implem
 
     protected final void deserializeCaps(CompoundNBT tag)
     {
+        if (isLazy && !initialized)
+        {
+            synchronized (this)
+            {
+                if (!initialized && gatheringThread == null)
+                {
+                    this.lazyData = tag;
+                    return;
+                }
+            }
+        }
         final CapabilityDispatcher disp = getCapabilities();
         if (disp != null)
         {
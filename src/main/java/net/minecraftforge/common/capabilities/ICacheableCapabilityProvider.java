@@ -0,0 +1,37 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2019.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.common.capabilities;
+
+/**
+ * A capability provider that promises its answers are stable: for a given capability and side,
+ * {@link #getCapability} returns the same result until either a LazyOptional it returned is
+ * invalidated or the owning object's capabilities are invalidated.
+ *
+ * When every provider attached to an object implements this, {@link CapabilityDispatcher} caches
+ * lookups instead of asking each provider again on every call.
+ *
+ * The LazyOptionals returned must be owned by this provider, not shared between providers or
+ * objects (e.g. a static or per-item singleton). The dispatcher registers an invalidation listener
+ * on each one it caches, and a shared LazyOptional would collect a listener from every object that
+ * ever queried it.
+ */
+public interface ICacheableCapabilityProvider extends ICapabilityProvider
+{
+}
@@ -0,0 +1,44 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2019.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.common.capabilities;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Implemented by serializable capability providers that can compare themselves without writing NBT.
+ *
+ * {@link CapabilityDispatcher#areCompatible(CapabilityDispatcher)}, which backs ItemStack equality, uses
+ * this instead of serializing both providers when two providers attached under the same name are of the
+ * same class. The result must agree with comparing the providers' {@code serializeNBT()} output.
+ */
+public interface IComparableCapability
+{
+    /**
+     * A hash of the serialized state, consistent with {@link #isEquivalent}. This is checked first, so
+     * implementations should cache it and only recompute it when their state changes.
+     */
+    int getComparisonHash();
+
+    /**
+     * @param other A provider of the same class, attached to another object under the same name
+     * @return True if both would serialize to equal NBT
+     */
+    boolean isEquivalent(@Nonnull IComparableCapability other);
+}
@@ -0,0 +1,332 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2019.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.common.crafting;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.inventory.CraftingInventory;
+import net.minecraft.inventory.IInventory;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.BlastingRecipe;
+import net.minecraft.item.crafting.CampfireCookingRecipe;
+import net.minecraft.item.crafting.FurnaceRecipe;
+import net.minecraft.item.crafting.IRecipe;
+import net.minecraft.item.crafting.IRecipeType;
+import net.minecraft.item.crafting.Ingredient;
+import net.minecraft.item.crafting.RecipeManager;
+import net.minecraft.item.crafting.ShapedRecipe;
+import net.minecraft.item.crafting.ShapelessRecipe;
+import net.minecraft.item.crafting.SmokingRecipe;
+import net.minecraft.item.crafting.StonecuttingRecipe;
+import net.minecraft.world.World;
+
+/**
+ * Item keyed lookup for {@link RecipeManager#getRecipe(IRecipeType, IInventory, World)}.
+ *
+ * Vanilla tests every recipe of a type against the inventory. This keeps, per recipe type, a map from
+ * each item to the recipes that cannot match without it, so a lookup only tests the recipes whose items
+ * are actually present. Only the vanilla recipe classes are indexed, and only through vanilla ingredients,
+ * whose matching depends on nothing but the item. Everything else (custom recipe classes, recipes made
+ * only of NBT or custom ingredients) sits in a residual list that is tested on every lookup, so the result
+ * is always the same recipe vanilla would have returned.
+ *
+ * The index is rebuilt lazily whenever the manager's recipe map for a type is replaced (datapack reload,
+ * recipe sync) or {@link Ingredient#invalidateAll()} is called after a tag reload.
+ */
+public class RecipeIndex
+{
+    private static final Set<Class<?>> INDEXED_CLASSES = ImmutableSet.of(
+        ShapedRecipe.class, ShapelessRecipe.class, FurnaceRecipe.class, BlastingRecipe.class,
+        SmokingRecipe.class, CampfireCookingRecipe.class, StonecuttingRecipe.class
+    );
+    private static final int CACHE_SIZE = 64;
+    private static final Map<RecipeManager, Map<IRecipeType<?>, TypeIndex>> INDEXES = new WeakHashMap<>();
+    private static volatile int generation;
+
+    /**
+     * Drops every index so it is rebuilt on next use. Called from {@link Ingredient#invalidateAll()}.
+     */
+    public static void invalidate()
+    {
+        generation++;
+    }
+
+    /**
+     * Same result as {@link RecipeManager#getRecipe(IRecipeType, IInventory, World)}, but only tests the recipes
+     * that could match the items in the inventory.
+     */
+    @SuppressWarnings("unchecked")
+    public static <C extends IInventory, T extends IRecipe<C>> Optional<T> getRecipe(RecipeManager manager, IRecipeType<T> type, C inv, World world)
+    {
+        return Optional.ofNullable((T)getIndex(manager, type).find(type, inv, world));
+    }
+
+    /**
+     * Every recipe of the type that matches the inventory, in the same order {@link RecipeManager#getRecipes(IRecipeType, IInventory, World)}
+     * finds them before sorting.
+     */
+    @SuppressWarnings("unchecked")
+    public static <C extends IInventory, T extends IRecipe<C>> List<T> getRecipes(RecipeManager manager, IRecipeType<T> type, C inv, World world)
+    {
+        return (List<T>)getIndex(manager, type).findAll(type, inv, world);
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static TypeIndex getIndex(RecipeManager manager, IRecipeType<?> type)
+    {
+        Map<?, ? extends IRecipe<?>> recipes = manager.getRecipes((IRecipeType)type);
+        int gen = generation;
+        synchronized (INDEXES)
+        {
+            Map<IRecipeType<?>, TypeIndex> byType = INDEXES.computeIfAbsent(manager, k -> new Reference2ObjectOpenHashMap<>());
+            TypeIndex index = byType.get(type);
+            if (index == null || index.source != recipes || index.generation != gen)
+            {
+                index = new TypeIndex(recipes, gen);
+                byType.put(type, index);
+            }
+            return index;
+        }
+    }
+
+    private static class TypeIndex
+    {
+        private final Map<?, ? extends IRecipe<?>> source;
+        private final int generation;
+        private final IRecipe<?>[] recipes;
+        private final Reference2IntOpenHashMap<IRecipe<?>> ordinals = new Reference2IntOpenHashMap<>();
+        private final Map<Item, int[]> byItem = new Reference2ObjectOpenHashMap<>();
+        // Recipes that are tested on every lookup
+        private final int[] residual;
+        // Recipes whose result can depend on more than the item in each slot, sorted
+        private final int[] unstable;
+        private final BitSet itemOnly;
+        private final Map<Signature, IRecipe<?>> lastMatch = new LinkedHashMap<Signature, IRecipe<?>>(CACHE_SIZE, 0.75F, true)
+        {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Signature, IRecipe<?>> eldest)
+            {
+                return size() > CACHE_SIZE;
+            }
+        };
+
+        private TypeIndex(Map<?, ? extends IRecipe<?>> source, int generation)
+        {
+            this.source = source;
+            this.generation = generation;
+            this.recipes = source.values().toArray(new IRecipe<?>[0]);
+            this.itemOnly = new BitSet(recipes.length);
+
+            Map<Item, IntList> items = new Reference2ObjectOpenHashMap<>();
+            IntList residual = new IntArrayList();
+            IntList unstable = new IntArrayList();
+            for (int x = 0; x < recipes.length; x++)
+            {
+                IRecipe<?> recipe = recipes[x];
+                ordinals.put(recipe, x);
+
+                Set<Item> key = null;
+                boolean vanillaOnly = INDEXED_CLASSES.contains(recipe.getClass());
+                if (vanillaOnly)
+                {
+                    for (Ingredient ingredient : recipe.getIngredients())
+                    {
+                        if (!ingredient.isVanilla())
+                        {
+                            vanillaOnly = false;
+                            continue;
+                        }
+                        if (ingredient.hasNoMatchingItems())
+                            continue;
+                        Set<Item> candidate = new ReferenceOpenHashSet<>();
+                        for (ItemStack stack : ingredient.getMatchingStacks())
+                            candidate.add(stack.getItem());
+                        if (key == null || candidate.size() < key.size())
+                            key = candidate;
+                    }
+                }
+
+                if (key == null)
+                    residual.add(x);
+                else
+                {
+                    for (Item item : key)
+                        items.computeIfAbsent(item, k -> new IntArrayList()).add(x);
+                }
+
+                if (vanillaOnly)
+                    itemOnly.set(x);
+                else
+                    unstable.add(x);
+            }
+
+            items.forEach((item, list) -> byItem.put(item, list.toIntArray()));
+            this.residual = residual.toIntArray();
+            this.unstable = unstable.toIntArray();
+        }
+
+        private IRecipe<?> find(IRecipeType<?> type, IInventory inv, World world)
+        {
+            if (recipes.length == 0)
+                return null;
+
+            Item[] slots = new Item[inv.getSizeInventory()];
+            for (int x = 0; x < slots.length; x++)
+                slots[x] = inv.getStackInSlot(x).getItem();
+            Signature signature = new Signature(inv, slots);
+
+            IRecipe<?> cached;
+            synchronized (lastMatch)
+            {
+                cached = lastMatch.get(signature);
+            }
+            if (cached != null)
+            {
+                // Item-only recipes before the cached one failed for these same items, so only the others need another look.
+                int ordinal = ordinals.getInt(cached);
+                for (int x : unstable)
+                {
+                    if (x >= ordinal)
+                        break;
+                    if (matches(type, recipes[x], inv, world))
+                        return recipes[x];
+                }
+                if (matches(type, cached, inv, world))
+                    return cached;
+                synchronized (lastMatch)
+                {
+                    lastMatch.remove(signature);
+                }
+            }
+
+            BitSet candidates = getCandidates(slots);
+            for (int x = candidates.nextSetBit(0); x >= 0; x = candidates.nextSetBit(x + 1))
+            {
+                if (matches(type, recipes[x], inv, world))
+                {
+                    if (itemOnly.get(x))
+                    {
+                        synchronized (lastMatch)
+                        {
+                            lastMatch.put(signature, recipes[x]);
+                        }
+                    }
+                    return recipes[x];
+                }
+            }
+            return null;
+        }
+
+        private List<IRecipe<?>> findAll(IRecipeType<?> type, IInventory inv, World world)
+        {
+            List<IRecipe<?>> ret = Lists.newArrayList();
+            if (recipes.length == 0)
+                return ret;
+
+            Item[] slots = new Item[inv.getSizeInventory()];
+            for (int x = 0; x < slots.length; x++)
+                slots[x] = inv.getStackInSlot(x).getItem();
+
+            BitSet candidates = getCandidates(slots);
+            for (int x = candidates.nextSetBit(0); x >= 0; x = candidates.nextSetBit(x + 1))
+            {
+                if (matches(type, recipes[x], inv, world))
+                    ret.add(recipes[x]);
+            }
+            return ret;
+        }
+
+        private BitSet getCandidates(Item[] slots)
+        {
+            BitSet candidates = new BitSet(recipes.length);
+            for (int x : residual)
+                candidates.set(x);
+            Item last = null;
+            for (Item item : slots)
+            {
+                if (item == last)
+                    continue;
+                last = item;
+                int[] list = byItem.get(item);
+                if (list != null)
+                {
+                    for (int x : list)
+                        candidates.set(x);
+                }
+            }
+            return candidates;
+        }
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        private static boolean matches(IRecipeType type, IRecipe recipe, IInventory inv, World world)
+        {
+            return type.matches(recipe, world, inv).isPresent();
+        }
+    }
+
+    private static class Signature
+    {
+        private final Class<?> owner;
+        private final int width;
+        private final Item[] slots;
+        private final int hash;
+
+        private Signature(IInventory inv, Item[] slots)
+        {
+            this.owner = inv.getClass();
+            this.width = inv instanceof CraftingInventory ? ((CraftingInventory)inv).getWidth() : 0;
+            this.slots = slots;
+            this.hash = (owner.hashCode() * 31 + width) * 31 + Arrays.hashCode(slots);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof Signature))
+                return false;
+            Signature other = (Signature)obj;
+            return hash == other.hash && owner == other.owner && width == other.width && Arrays.equals(slots, other.slots);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2019.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.common.loot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.gson.JsonObject;
+
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.ResourceLocation;
+import net.minecraft.world.storage.loot.LootContext;
+import net.minecraft.world.storage.loot.LootParameter;
+import net.minecraft.world.storage.loot.conditions.BlockStateProperty;
+import net.minecraft.world.storage.loot.conditions.ILootCondition;
+import net.minecraft.world.storage.loot.conditions.KilledByPlayer;
+import net.minecraft.world.storage.loot.conditions.MatchTool;
+
+/**
+ * Precompiled dispatch table for the global loot modifiers of one reload.
+ *
+ * Some vanilla conditions always fail when the loot parameter they read is missing from the context,
+ * e.g. match_tool without a tool. A {@link LootModifier} with such a condition can never fire for a context
+ * lacking that parameter, so the modifiers are grouped by which of those parameters are present and a
+ * drop only walks the group for its context. Modifiers that don't extend {@link LootModifier}, or whose
+ * conditions can't be introspected, are in every group. Layered order is preserved in each group.
+ */
+class LootModifierDispatcher {
+    private final ResourceLocation[] names;
+    private final IGlobalLootModifier[] modifiers;
+    private final LootParameter<?>[] parameters;
+    // Indexed by the mask of present parameters
+    private final int[][] groups;
+    private final LongAdder[] dispatches;
+    private final LongAdder[] calls;
+    private final LongAdder[] nanos;
+
+    LootModifierDispatcher(Map<ResourceLocation, IGlobalLootModifier> registered) {
+        this.names = registered.keySet().toArray(new ResourceLocation[0]);
+        this.modifiers = registered.values().toArray(new IGlobalLootModifier[0]);
+        this.calls = new LongAdder[modifiers.length];
+        this.nanos = new LongAdder[modifiers.length];
+
+        Set<LootParameter<?>> used = new LinkedHashSet<>();
+        List<Set<LootParameter<?>>> required = new ArrayList<>();
+        for (int x = 0; x < modifiers.length; x++) {
+            calls[x] = new LongAdder();
+            nanos[x] = new LongAdder();
+            Set<LootParameter<?>> params = getRequiredParameters(modifiers[x]);
+            used.addAll(params);
+            required.add(params);
+        }
+        this.parameters = used.toArray(new LootParameter<?>[0]);
+
+        int[] masks = new int[modifiers.length];
+        for (int x = 0; x < modifiers.length; x++) {
+            for (int y = 0; y < parameters.length; y++) {
+                if (required.get(x).contains(parameters[y]))
+                    masks[x] |= 1 << y;
+            }
+        }
+
+        this.groups = new int[1 << parameters.length][];
+        this.dispatches = new LongAdder[groups.length];
+        for (int present = 0; present < groups.length; present++) {
+            int count = 0;
+            int[] group = new int[modifiers.length];
+            for (int x = 0; x < modifiers.length; x++) {
+                if ((masks[x] & present) == masks[x])
+                    group[count++] = x;
+            }
+            dispatches[present] = new LongAdder();
+            groups[present] = count == group.length ? group : Arrays.copyOf(group, count);
+        }
+    }
+
+    static Set<LootParameter<?>> getRequiredParameters(IGlobalLootModifier modifier) {
+        Set<LootParameter<?>> ret = new LinkedHashSet<>();
+        if (!(modifier instanceof LootModifier))
+            return ret;
+        ILootCondition[] conditions = ((LootModifier)modifier).conditions;
+        if (conditions == null)
+            return ret;
+        for (ILootCondition condition : conditions) {
+            // These return false when their parameter is absent, and LootModifier ANDs its conditions.
+            // An inverted killed_by_player passes exactly when its parameter is absent, so it requires nothing.
+            if (condition instanceof MatchTool || condition instanceof BlockStateProperty || (condition instanceof KilledByPlayer && !isInverted((KilledByPlayer)condition)))
+                ret.addAll(condition.getRequiredParameters());
+        }
+        return ret;
+    }
+
+    private static boolean isInverted(KilledByPlayer condition) {
+        // The flag is private, the serializer is the only public way to read it
+        JsonObject json = new JsonObject();
+        new KilledByPlayer.Serializer().serialize(json, condition, null);
+        return json.has("inverse") && json.get("inverse").getAsBoolean();
+    }
+
+    List<ItemStack> apply(List<ItemStack> list, LootContext context) {
+        int present = 0;
+        for (int x = 0; x < parameters.length; x++) {
+            if (context.has(parameters[x]))
+                present |= 1 << x;
+        }
+
+        dispatches[present].increment();
+        for (int x : groups[present]) {
+            long start = System.nanoTime();
+            list = modifiers[x].apply(list, context);
+            nanos[x].add(System.nanoTime() - start);
+            calls[x].increment();
+        }
+        return list;
+    }
+
+    Map<ResourceLocation, LootModifierManager.Stats> getStats() {
+        long[] skipped = new long[modifiers.length];
+        for (int present = 0; present < groups.length; present++) {
+            long count = dispatches[present].sum();
+            if (count == 0 || groups[present].length == modifiers.length)
+                continue;
+            for (int x = 0; x < modifiers.length; x++) {
+                if (Arrays.binarySearch(groups[present], x) < 0)
+                    skipped[x] += count;
+            }
+        }
+
+        ImmutableMap.Builder<ResourceLocation, LootModifierManager.Stats> ret = ImmutableMap.builder();
+        for (int x = 0; x < names.length; x++)
+            ret.put(names[x], new LootModifierManager.Stats(calls[x].sum(), skipped[x], nanos[x].sum()));
+        return ret.build();
+    }
+}
@@ -28,7 +28,9 @@ import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.IntStream;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.logging.log4j.LogManager;
@@ -43,11 +45,13 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 
 import net.minecraft.client.resources.JsonReloadListener;
+import net.minecraft.item.ItemStack;
 import net.minecraft.profiler.IProfiler;
 import net.minecraft.resources.IResource;
 import net.minecraft.resources.IResourceManager;
 import net.minecraft.util.JSONUtils;
 import net.minecraft.util.ResourceLocation;
+import net.minecraft.world.storage.loot.LootContext;
 import net.minecraft.world.storage.loot.conditions.ILootCondition;
 import net.minecraft.world.storage.loot.conditions.LootConditionManager;
 import net.minecraft.world.storage.loot.functions.ILootFunction;
@@ -59,6 +63,7 @@ public class LootModifierManager extends JsonReloadListener {
     private static final Gson GSON_INSTANCE = (new GsonBuilder()).registerTypeHierarchyAdapter(ILootFunction.class, new LootFunctionManager.Serializer()).registerTypeHierarchyAdapter(ILootCondition.class, new LootConditionManager.Serializer()).create();
 
     private Map<ResourceLocation, IGlobalLootModifier> registeredLootModifiers = ImmutableMap.of();
+    private volatile LootModifierDispatcher dispatcher = new LootModifierDispatcher(registeredLootModifiers);
     private static final String folder = "loot_modifiers";
     
     public LootModifierManager() {
@@ -113,16 +118,24 @@ public class LootModifierManager extends JsonReloadListener {
             LOGGER.error("Couldn't read global loot modifier list from {}", resourcelocation, ioexception1);
         }
         //use layered config to fetch modifier data files (modifiers missing from config are disabled)
-        finalLocations.forEach(location -> {
+        //deserialized in parallel, then added in layered order
+        IGlobalLootModifier[] modifiers = new IGlobalLootModifier[finalLocations.size()];
+        IntStream.range(0, modifiers.length).parallel().forEach(i -> {
+            ResourceLocation location = finalLocations.get(i);
             try {
-                IGlobalLootModifier modifier = deserializeModifier(location, resourceList.get(location));
-                builder.put(location, modifier);
+                modifiers[i] = deserializeModifier(location, resourceList.get(location));
             } catch (Exception exception) {
                 LOGGER.error("Couldn't parse loot modifier {}", location, exception);
             }
         });
+        for (int i = 0; i < modifiers.length; i++) {
+            if (modifiers[i] != null)
+                builder.put(finalLocations.get(i), modifiers[i]);
+        }
         ImmutableMap<ResourceLocation, IGlobalLootModifier> immutablemap = builder.build();
+        LOGGER.debug("Loot modifier stats before reload: {}", this.getStats());
         this.registeredLootModifiers = immutablemap;
+        this.dispatcher = new LootModifierDispatcher(immutablemap);
     }
 
     private IGlobalLootModifier deserializeModifier(ResourceLocation location, JsonObject object) {
@@ -151,4 +164,54 @@ public class LootModifierManager extends JsonReloadListener {
         return registeredLootModifiers.values();
     }
 
+    /**
+     * Passes the loot through every modifier that can apply to the context, in layered order.
+     * Modifiers whose conditions can't pass for the context are skipped without being called.
+     */
+    public List<ItemStack> modifyLoot(List<ItemStack> generatedLoot, LootContext context) {
+        return dispatcher.apply(generatedLoot, context);
+    }
+
+    /**
+     * Per modifier call counts and timings since the last reload, in layered order.
+     */
+    public Map<ResourceLocation, Stats> getStats() {
+        return dispatcher.getStats();
+    }
+
+    /**
+     * Snapshot of the counters for a single modifier since the last reload.
+     */
+    public static class Stats {
+        private final long calls;
+        private final long skipped;
+        private final long nanos;
+
+        Stats(long calls, long skipped, long nanos) {
+            this.calls = calls;
+            this.skipped = skipped;
+            this.nanos = nanos;
+        }
+
+        /** Number of drops the modifier was applied to. */
+        public long getCalls() {
+            return calls;
+        }
+
+        /** Number of drops the dispatch table kept from reaching the modifier. */
+        public long getSkipped() {
+            return skipped;
+        }
+
+        /** Total time spent in the modifier, in nanoseconds. */
+        public long getNanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("calls=%d skipped=%d time=%.3fms", calls, skipped, nanos / 1_000_000.0);
+        }
+    }
+
 }
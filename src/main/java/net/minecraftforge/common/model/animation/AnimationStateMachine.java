@@ -20,9 +20,6 @@
 package net.minecraftforge.common.model.animation;
 
 import com.google.common.base.Predicate;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
@@ -47,7 +44,6 @@ import net.minecraftforge.common.animation.ITimeValue;
 import net.minecraftforge.common.animation.TimeValues;
 import net.minecraftforge.common.util.JsonUtils;
 import org.apache.commons.lang3.tuple.Pair;
-import org.apache.commons.lang3.tuple.Triple;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -59,7 +55,6 @@ import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 public final class AnimationStateMachine implements IAnimationStateMachine
@@ -77,18 +72,6 @@ public final class AnimationStateMachine implements IAnimationStateMachine
     private transient IClip currentState;
     private transient float lastPollTime;
 
-    private static final LoadingCache<Triple<? extends IClip, Float, Float>, Pair<IModelTransform, Iterable<Event>>> clipCache = CacheBuilder.newBuilder()
-        .maximumSize(100)
-        .expireAfterWrite(100, TimeUnit.MILLISECONDS)
-        .build(new CacheLoader<Triple<? extends IClip, Float, Float>, Pair<IModelTransform, Iterable<Event>>>()
-        {
-            @Override
-            public Pair<IModelTransform, Iterable<Event>> load(Triple<? extends IClip, Float, Float> key) throws Exception
-            {
-                return Clips.apply(key.getLeft(), key.getMiddle(), key.getRight());
-            }
-        });
-
     public AnimationStateMachine(ImmutableMap<String, ITimeValue> parameters, ImmutableMap<String, IClip> clips, ImmutableList<String> states, ImmutableMultimap<String, String> transitions, String startState)
     {
         this.parameters = parameters;
@@ -138,7 +121,8 @@ public final class AnimationStateMachine implements IAnimationStateMachine
         {
             lastPollTime = time;
         }
-        Pair<IModelTransform, Iterable<Event>> pair = clipCache.getUnchecked(Triple.of(currentState, lastPollTime, time));
+        // Sampled fresh on every call, clips may read parameters that changed since the last one
+        Pair<IModelTransform, Iterable<Event>> pair = Clips.apply(currentState, lastPollTime, time);
         lastPollTime = time;
         boolean shouldFilter = false;
         if(shouldHandleSpecialEvents)
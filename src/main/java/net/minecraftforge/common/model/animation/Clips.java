@@ -42,6 +42,10 @@ import org.apache.logging.log4j.Logger;
 
 import java.util.function.Function;
 import com.google.common.base.Objects;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
@@ -304,34 +308,76 @@ public final class Clips
      */
     public static Pair<IModelTransform, Iterable<Event>> apply(final IClip clip, final float lastPollTime, final float time)
     {
-        return Pair.of(new IModelTransform()
+        return Pair.of(new ClipPose(clip, time), clip.pastEvents(lastPollTime, time));
+    }
+
+    /**
+     * A clip sampled at one point in time. The clip is applied to each joint only once, and every joint's pose builds on
+     * its parent's, so resolving a whole skeleton is linear in the number of joints instead of quadratic in its depth.
+     * Parameters the clip reads are fixed at the first lookup, so a new pose should be sampled for every frame.
+     */
+    private static final class ClipPose implements IModelTransform
+    {
+        private final IClip clip;
+        private final float time;
+        // Joint poses in model space, without and with the inverse bind pose applied
+        private final Map<IJoint, TransformationMatrix> poses = new HashMap<>();
+        private final Map<IJoint, TransformationMatrix> transforms = new HashMap<>();
+
+        private ClipPose(IClip clip, float time)
         {
-            @Override
-            public TransformationMatrix getRotation()
+            this.clip = clip;
+            this.time = time;
+        }
+
+        @Override
+        public TransformationMatrix getRotation()
+        {
+            return TransformationMatrix.identity();
+        }
+
+        @Override
+        public synchronized TransformationMatrix getPartTransformation(Object part)
+        {
+            if(!(part instanceof IJoint))
             {
                 return TransformationMatrix.identity();
             }
+            IJoint joint = (IJoint)part;
+            TransformationMatrix jointTransform = transforms.get(joint);
+            if(jointTransform == null)
+            {
+                jointTransform = getPose(joint).compose(joint.getInvBindPose());
+                transforms.put(joint, jointTransform);
+            }
+            return jointTransform;
+        }
 
-            @Override
-            public TransformationMatrix getPartTransformation(Object part)
+        private TransformationMatrix getPose(IJoint joint)
+        {
+            // Walk up to the nearest ancestor we already have, then resolve the rest top down
+            Deque<IJoint> unresolved = new ArrayDeque<>();
+            TransformationMatrix pose = null;
+            Optional<? extends IJoint> current = Optional.of(joint);
+            while(current.isPresent())
             {
-                if(!(part instanceof IJoint))
-                {
-                    return TransformationMatrix.identity();
-                }
-                IJoint joint = (IJoint)part;
-                // TODO: Cache clip application?
-                TransformationMatrix jointTransform = clip.apply(joint).apply(time).compose(joint.getInvBindPose());
-                Optional<? extends IJoint> parent = joint.getParent();
-                while(parent.isPresent())
+                pose = poses.get(current.get());
+                if(pose != null)
                 {
-                    TransformationMatrix parentTransform = clip.apply(parent.get()).apply(time);
-                    jointTransform = parentTransform.compose(jointTransform);
-                    parent = parent.get().getParent();
+                    break;
                 }
-                return jointTransform;
+                unresolved.push(current.get());
+                current = current.get().getParent();
             }
-        }, clip.pastEvents(lastPollTime, time));
+            while(!unresolved.isEmpty())
+            {
+                IJoint next = unresolved.pop();
+                TransformationMatrix local = clip.apply(next).apply(time);
+                pose = pose == null ? local : pose.compose(local);
+                poses.put(next, pose);
+            }
+            return pose;
+        }
     }
 
     /**
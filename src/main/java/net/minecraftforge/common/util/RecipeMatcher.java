@@ -19,14 +19,13 @@
 
 package net.minecraftforge.common.util;
 
-import java.util.BitSet;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Queue;
 import java.util.function.Predicate;
 
 public class RecipeMatcher
 {
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
     /**
      * Attempts to match inputs to the specified tests. In the best way that all inputs are used by one test.
      * Will return null in any of these cases:
@@ -43,120 +42,150 @@ public class RecipeMatcher
         if (elements != tests.size())
             return null; // There will not be a 1:1 mapping of inputs -> tests
 
-        int[] ret = new int[elements];
-        for (int x = 0; x < elements; x++)
-            ret[x] = -1;
+        Scratch scratch = SCRATCH.get();
+        if (scratch.inUse)
+            scratch = new Scratch(); // A test is matching a recipe of its own, don't trample the outer call
+        scratch.inUse = true;
+        try
+        {
+            return findMatches(inputs, tests, elements, scratch);
+        }
+        finally
+        {
+            scratch.inUse = false;
+        }
+    }
+
+    private static <T> int[] findMatches(List<T> inputs, List<? extends Predicate<T>> tests, int elements, Scratch s)
+    {
+        s.ensure(elements);
 
-        // [UnusedInputs] [UnusedIngredients] [IngredientMatchMask]...
-        BitSet data = new BitSet((elements + 2) * elements);
+        // Evaluate every test against every input exactly once, the matching below only looks at this table
+        int unseen = elements;
+        for (int y = 0; y < elements; y++)
+            s.inputMatch[y] = -1;
         for (int x = 0; x < elements; x++)
         {
-            int matched = 0;
-            int offset = (x + 2) * elements;
             Predicate<T> test = tests.get(x);
-
+            int offset = x * elements;
+            int count = 0;
             for (int y = 0; y < elements; y++)
             {
-                if (data.get(y))
-                    continue;
-
                 if (test.test(inputs.get(y)))
                 {
-                    data.set(offset + y);
-                    matched++;
+                    s.edges[offset + count++] = y;
+                    if (s.inputMatch[y] == -1)
+                    {
+                        s.inputMatch[y] = -2; // Seen, but not yet matched
+                        unseen--;
+                    }
                 }
             }
 
-            if (matched == 0)
+            if (count == 0)
                 return null; //We have an test that matched non of the inputs
-
-            if (matched == 1)
-            {
-                if (!claim(ret, data, x, elements))
-                    return null; //We failed to claim this index, which means it caused something else to go to 0 matches, which makes the whole thing fail
-            }
+            s.edgeCount[x] = count;
+            s.testMatch[x] = -1;
         }
 
-        if (data.nextClearBit(0) >= elements) //All items have been used, which means all tests have a match!
-            return ret;
+        if (unseen > 0)
+            return null; //We have an input that no test matches
+        for (int y = 0; y < elements; y++)
+            s.inputMatch[y] = -1;
 
-        // We should be in a state where multiple tests are satified by multiple inputs. So we need to try a branching recursive test.
-        // However for performance reasons, we should probably make that check a sub-set of the entire graph.
-        if (backtrack(data, ret, 0, elements))
-            return ret;
+        // Hopcroft-Karp, grow the matching along shortest augmenting paths until none are left
+        int matched = 0;
+        while (bfs(s, elements))
+        {
+            for (int x = 0; x < elements; x++)
+                if (s.testMatch[x] == -1 && dfs(s, x, elements))
+                    matched++;
+        }
+
+        if (matched != elements)
+            return null;
 
-        return null; //Backtrack failed, no matches, we cry and go home now :(
+        int[] ret = new int[elements];
+        System.arraycopy(s.inputMatch, 0, ret, 0, elements);
+        return ret;
     }
 
-    // This is bad... need to think of a better cascade, recursion instead of stack?
-    private static boolean claim(int[] ret, BitSet data, int claimed, int elements)
+    // Layers the free tests and everything reachable from them by alternating paths, returns true if a free input was reached
+    private static boolean bfs(Scratch s, int elements)
     {
-        Queue<Integer> pending = new LinkedList<Integer>();
-        pending.add(claimed);
-
-        while (pending.peek() != null)
+        int head = 0, tail = 0;
+        for (int x = 0; x < elements; x++)
         {
-            int test = pending.poll();
-            int offset = (test + 2) * elements;
-            int used = data.nextSetBit(offset) - offset;
-
-            if (used >= elements || used < 0)
-                throw new IllegalStateException("What? We matched something, but it wasn't set in the range of this test! Test: " + test +  " Used: " + used);
-
-            data.set(used);
-            data.set(elements + test);
-            ret[used] = test;
+            if (s.testMatch[x] == -1)
+            {
+                s.layer[x] = 0;
+                s.queue[tail++] = x;
+            }
+            else
+                s.layer[x] = Integer.MAX_VALUE;
+        }
 
-            for (int x = 0; x < elements; x++)
+        boolean found = false;
+        while (head < tail)
+        {
+            int test = s.queue[head++];
+            int offset = test * elements;
+            for (int e = 0; e < s.edgeCount[test]; e++)
             {
-                offset = (x + 2) * elements;
-                if (data.get(offset + used) && !data.get(elements + x))
+                int next = s.inputMatch[s.edges[offset + e]];
+                if (next == -1)
+                    found = true;
+                else if (s.layer[next] == Integer.MAX_VALUE)
                 {
-                    data.clear(offset + used);
-                    int count = 0;
-                    for (int y = offset; y < offset + elements; y++)
-                        if (data.get(y))
-                            count++;
-
-                    if (count == 0)
-                        return false; //Claiming this caused another test to lose its last match..
-
-                    if (count == 1)
-                        pending.add(x);
+                    s.layer[next] = s.layer[test] + 1;
+                    s.queue[tail++] = next;
                 }
             }
         }
-
-        return true;
+        return found;
     }
 
-    //We use recursion here, why? Because I feel like it. Also because we should only ever be working in data sets < 9
-    private static boolean backtrack(BitSet data, int[] ret, int start, int elements)
+    // Depth is bounded by the number of tests, which is at most the size of a crafting grid
+    private static boolean dfs(Scratch s, int test, int elements)
     {
-      int test = data.nextClearBit(elements + start) - elements;
-      if (test >= elements)
-        return true; //Could not find the next unused test.
-
-      if (test < 0)
-        throw new IllegalStateException("This should never happen, negative test in backtrack!");
-
-      int offset = (test + 2) * elements;
-      for (int x = 0; x < elements; x++)
-      {
-        if (!data.get(offset + x) || data.get(x))
-            continue;
-
-        data.set(x);
-
-        if (backtrack(data, ret, test + 1, elements))
+        int offset = test * elements;
+        for (int e = 0; e < s.edgeCount[test]; e++)
         {
-            ret[x] = test;
-            return true;
+            int input = s.edges[offset + e];
+            int next = s.inputMatch[input];
+            if (next == -1 || (s.layer[next] == s.layer[test] + 1 && dfs(s, next, elements)))
+            {
+                s.testMatch[test] = input;
+                s.inputMatch[input] = test;
+                return true;
+            }
         }
+        s.layer[test] = Integer.MAX_VALUE; // Dead end, don't come back this phase
+        return false;
+    }
 
-        data.clear(x);
-      }
-
-      return false;
+    private static class Scratch
+    {
+        private boolean inUse;
+        private int size = -1;
+        private int[] edges;      // The inputs each test matches, test x owns [x * elements, x * elements + edgeCount[x])
+        private int[] edgeCount;
+        private int[] testMatch;  // Input matched to each test, or -1
+        private int[] inputMatch; // Test matched to each input, or -1
+        private int[] layer;
+        private int[] queue;
+
+        private void ensure(int elements)
+        {
+            if (elements <= size)
+                return;
+            size = elements;
+            edges = new int[elements * elements];
+            edgeCount = new int[elements];
+            testMatch = new int[elements];
+            inputMatch = new int[elements];
+            layer = new int[elements];
+            queue = new int[elements];
+        }
     }
 }
@@ -20,16 +20,25 @@
 package net.minecraftforge.common.util;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.function.IntSupplier;
 import java.util.function.Supplier;
 
+import com.google.common.collect.ImmutableSet;
+
+import net.minecraft.tags.Tag;
 import net.minecraft.tags.TagCollection;
 import net.minecraft.util.ResourceLocation;
 
 public class ReverseTagWrapper<T>
 {
+    // One reverse index per tag collection, shared by every wrapper of that collection
+    private static final Map<TagCollection<?>, ReverseIndex<?>> INDEXES = new WeakHashMap<>();
+
     private final T target;
     private final IntSupplier genSupplier;
     private final Supplier<TagCollection<T>> colSupplier;
@@ -46,11 +55,58 @@ public class ReverseTagWrapper<T>
 
     public Set<ResourceLocation> getTagNames()
     {
-        if (cache == null || generation != genSupplier.getAsInt())
+        int gen = genSupplier.getAsInt();
+        if (cache == null || generation != gen)
         {
-            this.cache = Collections.unmodifiableSet(new HashSet<>(colSupplier.get().getOwningTags(target)));
-            this.generation = genSupplier.getAsInt();
+            this.cache = getIndex(colSupplier.get(), gen).get(target);
+            this.generation = gen;
         }
         return this.cache;
     }
+
+    @SuppressWarnings("unchecked")
+    private static <T> ReverseIndex<T> getIndex(TagCollection<T> collection, int generation)
+    {
+        synchronized (INDEXES)
+        {
+            ReverseIndex<T> index = (ReverseIndex<T>)INDEXES.get(collection);
+            if (index == null || index.generation != generation)
+            {
+                index = new ReverseIndex<>(collection, generation);
+                INDEXES.put(collection, index);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Maps every tagged object to the names of the tags containing it. Built in a single pass over the
+     * collection, instead of {@link TagCollection#getOwningTags(Object)} scanning every tag for each object.
+     * Objects with the same tags share one immutable set.
+     */
+    private static class ReverseIndex<T>
+    {
+        private final int generation;
+        private final Map<T, Set<ResourceLocation>> owners = new HashMap<>();
+
+        private ReverseIndex(TagCollection<T> collection, int generation)
+        {
+            this.generation = generation;
+
+            Map<T, Set<ResourceLocation>> building = new HashMap<>();
+            for (Map.Entry<ResourceLocation, Tag<T>> entry : collection.getTagMap().entrySet())
+            {
+                for (T element : entry.getValue().getAllElements())
+                    building.computeIfAbsent(element, k -> new HashSet<>()).add(entry.getKey());
+            }
+
+            Map<Set<ResourceLocation>, Set<ResourceLocation>> shared = new HashMap<>();
+            building.forEach((element, tags) -> owners.put(element, shared.computeIfAbsent(tags, ImmutableSet::copyOf)));
+        }
+
+        private Set<ResourceLocation> get(T target)
+        {
+            return owners.getOrDefault(target, Collections.emptySet());
+        }
+    }
 }
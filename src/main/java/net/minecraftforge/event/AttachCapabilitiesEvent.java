@@ -42,6 +42,10 @@ import net.minecraftforge.eventbus.api.GenericEvent;
  *
  * Please note that as this is fired for ALL object creations efficient code is recommended.
  * And if possible use one of the sub-classes to filter your intended objects.
+ *
+ * For ItemStacks this is fired lazily, the first time the stack's capabilities are needed rather than when
+ * it is constructed. Listeners, and {@link net.minecraft.item.Item#initCapabilities}, see the stack's count and
+ * tag as they are at that point, including a tag set after construction, such as the one {@code copy()} sets.
  */
 public class AttachCapabilitiesEvent<T> extends GenericEvent<T>
 {
@@ -0,0 +1,206 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2019.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.event;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nullable;
+
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.eventbus.ListenerList;
+import net.minecraftforge.eventbus.api.Event;
+import net.minecraftforge.eventbus.api.EventListenerHelper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Listener presence checks and post accounting for hot hooks on {@link MinecraftForge#EVENT_BUS}.
+ *
+ * <p>Hook sites that fire very often guard themselves with {@link #shouldPost(Class)}, so that when nothing listens to
+ * the event they skip both building it and posting it. The check reads the bus' own listener list for the event type,
+ * which the bus rebuilds whenever a listener is registered or unregistered, so it never goes stale. If the bus internals
+ * can't be reached every check answers true and hooks behave exactly as if they were unguarded.
+ *
+ * <p>Events posted through {@link #post(Event)} are counted and timed per type, as are the posts that were skipped.
+ * The numbers can be read with {@link #getStats()} and are shown by {@code /forge events}.
+ */
+public class EventPostTracker
+{
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final int BUS_ID = findBusId();
+    private static final Map<Class<?>, Stats> STATS = new ConcurrentHashMap<>();
+    private static final ClassValue<Stats> BY_TYPE = new ClassValue<Stats>()
+    {
+        @Override
+        protected Stats computeValue(Class<?> type)
+        {
+            return STATS.computeIfAbsent(type, Stats::new);
+        }
+    };
+
+    private static int findBusId()
+    {
+        try
+        {
+            Field field = MinecraftForge.EVENT_BUS.getClass().getDeclaredField("busID");
+            field.setAccessible(true);
+            return field.getInt(MinecraftForge.EVENT_BUS);
+        }
+        catch (ReflectiveOperationException | RuntimeException e)
+        {
+            LOGGER.warn("Unable to find the id of the Forge event bus, hooks will always post their events", e);
+            return -1;
+        }
+    }
+
+    /**
+     * @return true if anything on {@link MinecraftForge#EVENT_BUS} would receive an event of this type. Listeners for
+     *         parent types count, and generic events count their listeners regardless of the generic type.
+     */
+    public static boolean hasListeners(Class<? extends Event> type)
+    {
+        ListenerList listeners = BY_TYPE.get(type).listeners;
+        return listeners == null || listeners.getListeners(BUS_ID).length != 0;
+    }
+
+    /**
+     * Like {@link #hasListeners(Class)}, but records a skipped post for the type if there are no listeners.
+     */
+    public static boolean shouldPost(Class<? extends Event> type)
+    {
+        Stats stats = BY_TYPE.get(type);
+        ListenerList listeners = stats.listeners;
+        if (listeners == null || listeners.getListeners(BUS_ID).length != 0)
+            return true;
+        stats.skipped.increment();
+        return false;
+    }
+
+    /**
+     * Post to {@link MinecraftForge#EVENT_BUS}, recording the time spent for the event type.
+     *
+     * @return the result of {@link net.minecraftforge.eventbus.api.IEventBus#post(Event)}
+     */
+    public static boolean post(Event event)
+    {
+        long start = System.nanoTime();
+        try
+        {
+            return MinecraftForge.EVENT_BUS.post(event);
+        }
+        finally
+        {
+            BY_TYPE.get(event.getClass()).record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * @return the recorded types, busiest first
+     */
+    public static List<Stats> getStats()
+    {
+        List<Stats> ret = new ArrayList<>();
+        STATS.values().forEach(s -> {
+            if (s.getPosts() != 0 || s.getSkipped() != 0)
+                ret.add(s);
+        });
+        ret.sort(Comparator.comparingLong(Stats::getTotalTime).reversed().thenComparing(Comparator.comparingLong(Stats::getSkipped).reversed()));
+        return ret;
+    }
+
+    public static void reset()
+    {
+        STATS.values().forEach(Stats::reset);
+    }
+
+    public static class Stats
+    {
+        private final Class<?> type;
+        @Nullable
+        private final ListenerList listeners;
+        private final LongAdder posts = new LongAdder();
+        private final LongAdder skipped = new LongAdder();
+        private final LongAdder totalTime = new LongAdder();
+
+        private Stats(Class<?> type)
+        {
+            this.type = type;
+            this.listeners = findListeners(type);
+        }
+
+        @Nullable
+        private static ListenerList findListeners(Class<?> type)
+        {
+            if (BUS_ID < 0)
+                return null;
+            try
+            {
+                return EventListenerHelper.getListenerList(type);
+            }
+            catch (RuntimeException | LinkageError e)
+            {
+                LOGGER.debug("Unable to find the listener list of {}, it will always be posted", type.getName(), e);
+                return null;
+            }
+        }
+
+        private void record(long time)
+        {
+            this.posts.increment();
+            this.totalTime.add(time);
+        }
+
+        private void reset()
+        {
+            this.posts.reset();
+            this.skipped.reset();
+            this.totalTime.reset();
+        }
+
+        public Class<?> getType()
+        {
+            return this.type;
+        }
+
+        public long getPosts()
+        {
+            return this.posts.sum();
+        }
+
+        public long getSkipped()
+        {
+            return this.skipped.sum();
+        }
+
+        /**
+         * @return the total time spent posting, in nanoseconds
+         */
+        public long getTotalTime()
+        {
+            return this.totalTime.sum();
+        }
+    }
+}
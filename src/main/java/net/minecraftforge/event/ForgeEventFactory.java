@@ -49,6 +49,7 @@ import net.minecraft.entity.projectile.ThrowableEntity;
 import net.minecraft.block.Blocks;
 import net.minecraft.item.ItemStack;
 import net.minecraft.item.ItemUseContext;
+import net.minecraft.nbt.CompoundNBT;
 import net.minecraft.world.spawner.AbstractSpawner;
 import net.minecraft.util.ActionResult;
 import net.minecraft.util.ActionResultType;
@@ -72,6 +73,8 @@ import net.minecraft.world.World;
 import net.minecraft.world.server.ServerWorld;
 import net.minecraft.world.WorldSettings;
 import net.minecraft.world.biome.Biome;
+import net.minecraft.world.chunk.ChunkStatus;
+import net.minecraft.world.chunk.IChunk;
 import net.minecraft.world.storage.IPlayerFileData;
 import net.minecraft.world.storage.SaveHandler;
 import net.minecraft.world.storage.loot.LootTable;
@@ -125,6 +128,7 @@ import net.minecraftforge.event.world.BlockEvent.CreateFluidSourceEvent;
 import net.minecraftforge.event.world.BlockEvent.EntityMultiPlaceEvent;
 import net.minecraftforge.event.world.BlockEvent.EntityPlaceEvent;
 import net.minecraftforge.event.world.BlockEvent.NeighborNotifyEvent;
+import net.minecraftforge.event.world.ChunkDataEvent;
 import net.minecraftforge.event.world.ChunkWatchEvent;
 import net.minecraftforge.event.world.ExplosionEvent;
 import net.minecraftforge.event.world.GetCollisionBoxesEvent;
@@ -156,7 +160,7 @@ public class ForgeEventFactory
     public static NeighborNotifyEvent onNeighborNotify(World world, BlockPos pos, BlockState state, EnumSet<Direction> notifiedSides, boolean forceRedstoneUpdate)
     {
         NeighborNotifyEvent event = new NeighborNotifyEvent(world, pos, state, notifiedSides, forceRedstoneUpdate);
-        MinecraftForge.EVENT_BUS.post(event);
+        EventPostTracker.post(event);
         return event;
     }
 
@@ -403,8 +407,10 @@ public class ForgeEventFactory
 
     public static boolean canEntityUpdate(Entity entity)
     {
+        if (!EventPostTracker.shouldPost(EntityEvent.CanUpdate.class))
+            return false;
         EntityEvent.CanUpdate event = new EntityEvent.CanUpdate(entity);
-        MinecraftForge.EVENT_BUS.post(event);
+        EventPostTracker.post(event);
         return event.getCanUpdate();
     }
 
@@ -566,13 +572,15 @@ public class ForgeEventFactory
     @Nullable
     public static <T extends ICapabilityProvider> CapabilityDispatcher gatherCapabilities(Class<? extends T> type, T provider, @Nullable ICapabilityProvider parent)
     {
+        if (!EventPostTracker.shouldPost(AttachCapabilitiesEvent.class))
+            return parent != null ? new CapabilityDispatcher(Collections.emptyMap(), Collections.emptyList(), parent) : null;
         return gatherCapabilities(new AttachCapabilitiesEvent<T>((Class<T>) type, provider), parent);
     }
 
     @Nullable
     private static CapabilityDispatcher gatherCapabilities(AttachCapabilitiesEvent<?> event, @Nullable ICapabilityProvider parent)
     {
-        MinecraftForge.EVENT_BUS.post(event);
+        EventPostTracker.post(event);
         return event.getCapabilities().size() > 0 || parent != null ? new CapabilityDispatcher(event.getCapabilities(), event.getListeners(), parent) : null;
     }
 
@@ -702,6 +710,18 @@ public class ForgeEventFactory
         return event.getResult() != Result.DENY;
     }
 
+    public static void onChunkDataLoad(IChunk chunk, CompoundNBT data, ChunkStatus.Type status)
+    {
+        if (EventPostTracker.shouldPost(ChunkDataEvent.Load.class))
+            EventPostTracker.post(new ChunkDataEvent.Load(chunk, data, status));
+    }
+
+    public static void onChunkDataSave(IChunk chunk, IWorld world, CompoundNBT data)
+    {
+        if (EventPostTracker.shouldPost(ChunkDataEvent.Save.class))
+            EventPostTracker.post(new ChunkDataEvent.Save(chunk, world, data));
+    }
+
     public static void fireChunkWatch(boolean watch, ServerPlayerEntity entity, ChunkPos chunkpos, ServerWorld world)
     {
         if (watch)
@@ -46,6 +46,7 @@ public class FluidHandlerItemStack implements IFluidHandlerItem, ICapabilityProv
     public static final String FLUID_NBT_KEY = "Fluid";
 
     private final LazyOptional<IFluidHandlerItem> holder = LazyOptional.of(() -> this);
+    private final FluidStackNBTCache fluidCache = new FluidStackNBTCache(FLUID_NBT_KEY);
 
     @Nonnull
     protected ItemStack container;
@@ -71,12 +72,7 @@ public class FluidHandlerItemStack implements IFluidHandlerItem, ICapabilityProv
     @Nonnull
     public FluidStack getFluid()
     {
-        CompoundNBT tagCompound = container.getTag();
-        if (tagCompound == null || !tagCompound.contains(FLUID_NBT_KEY))
-        {
-            return FluidStack.EMPTY;
-        }
-        return FluidStack.loadFluidStackFromNBT(tagCompound.getCompound(FLUID_NBT_KEY));
+        return fluidCache.get(container);
     }
 
     protected void setFluid(FluidStack fluid)
@@ -89,6 +85,7 @@ public class FluidHandlerItemStack implements IFluidHandlerItem, ICapabilityProv
         CompoundNBT fluidTag = new CompoundNBT();
         fluid.writeToNBT(fluidTag);
         container.getTag().put(FLUID_NBT_KEY, fluidTag);
+        fluidCache.written(fluidTag, fluid);
     }
 
     @Override
@@ -0,0 +1,106 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2019.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.fluids.capability.templates;
+
+import javax.annotation.Nonnull;
+
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.nbt.INBT;
+import net.minecraftforge.common.util.Constants;
+import net.minecraftforge.fluids.FluidStack;
+
+/**
+ * Decoded view of the FluidStack stored in an ItemStack's NBT, used by the item fluid handler templates.
+ *
+ * Decoding means parsing the fluid's name and looking it up in the registry, so the result is kept
+ * until the stored tag changes. Any write through NBT replaces the fluid compound or one of its entries,
+ * so comparing their identities (and the amount) is enough to tell the view is still current.
+ */
+final class FluidStackNBTCache
+{
+    private final String key;
+    private CompoundNBT source;
+    private INBT name;
+    private int amount;
+    private INBT tag;
+    @Nonnull
+    private FluidStack fluid = FluidStack.EMPTY;
+
+    FluidStackNBTCache(String key)
+    {
+        this.key = key;
+    }
+
+    /**
+     * The fluid stored in the container, as a new stack that shares the stored "Tag" compound
+     * the same way {@link FluidStack#loadFluidStackFromNBT(CompoundNBT)} does.
+     */
+    @Nonnull
+    FluidStack get(ItemStack container)
+    {
+        CompoundNBT tagCompound = container.getTag();
+        if (tagCompound == null)
+            return FluidStack.EMPTY;
+
+        INBT nbt = tagCompound.get(key);
+        if (!(nbt instanceof CompoundNBT))
+            return FluidStack.EMPTY;
+
+        CompoundNBT fluidTag = (CompoundNBT)nbt;
+        if (fluidTag != source || fluidTag.get("FluidName") != name || fluidTag.getInt("Amount") != amount || fluidTag.get("Tag") != tag)
+            update(fluidTag, FluidStack.loadFluidStackFromNBT(fluidTag));
+        return share(fluid);
+    }
+
+    /**
+     * Records a fluid that was just written to the container, so the next read doesn't decode it again.
+     */
+    void written(CompoundNBT fluidTag, FluidStack fluid)
+    {
+        FluidStack view = FluidStack.EMPTY;
+        if (!fluid.isEmpty())
+        {
+            view = new FluidStack(fluid.getFluid(), fluid.getAmount());
+            if (fluidTag.contains("Tag", Constants.NBT.TAG_COMPOUND))
+                view.setTag(fluidTag.getCompound("Tag"));
+        }
+        update(fluidTag, view);
+    }
+
+    private void update(CompoundNBT fluidTag, FluidStack fluid)
+    {
+        this.source = fluidTag;
+        this.name = fluidTag.get("FluidName");
+        this.amount = fluidTag.getInt("Amount");
+        this.tag = fluidTag.get("Tag");
+        this.fluid = fluid;
+    }
+
+    private static FluidStack share(FluidStack fluid)
+    {
+        if (fluid.isEmpty())
+            return FluidStack.EMPTY;
+        FluidStack ret = new FluidStack(fluid.getFluid(), fluid.getAmount());
+        if (fluid.hasTag())
+            ret.setTag(fluid.getTag());
+        return ret;
+    }
+}
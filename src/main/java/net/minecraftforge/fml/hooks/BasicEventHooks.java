@@ -29,6 +29,7 @@ import net.minecraftforge.client.model.animation.Animation;
 import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.event.entity.player.PlayerEvent;
 import net.minecraftforge.fml.LogicalSide;
+import net.minecraftforge.fml.network.PacketBatcher;
 import net.minecraftforge.event.TickEvent;
 
 public class BasicEventHooks
@@ -107,6 +108,7 @@ public class BasicEventHooks
     public static void onPostClientTick()
     {
         MinecraftForge.EVENT_BUS.post(new TickEvent.ClientTickEvent(TickEvent.Phase.END));
+        PacketBatcher.flush(LogicalSide.CLIENT);
     }
 
     public static void onPreServerTick()
@@ -117,5 +119,6 @@ public class BasicEventHooks
     public static void onPostServerTick()
     {
         MinecraftForge.EVENT_BUS.post(new TickEvent.ServerTickEvent(TickEvent.Phase.END));
+        PacketBatcher.flush(LogicalSide.SERVER);
     }
 }
@@ -21,6 +21,7 @@ package net.minecraftforge.fml.network;
 
 import net.minecraft.network.login.ServerLoginNetHandler;
 import com.google.common.collect.Multimap;
+import io.netty.buffer.Unpooled;
 import net.minecraft.network.NetworkManager;
 import net.minecraft.network.PacketBuffer;
 import net.minecraft.util.ResourceLocation;
@@ -31,6 +32,7 @@ import net.minecraftforge.fml.network.simple.SimpleChannel;
 import net.minecraftforge.fml.util.ThreeConsumer;
 import net.minecraftforge.registries.ForgeRegistry;
 import net.minecraftforge.registries.GameData;
+import net.minecraftforge.registries.RegistryManager;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.Marker;
@@ -45,6 +47,8 @@ import java.util.function.BiConsumer;
 import java.util.function.IntSupplier;
 import java.util.function.Supplier;
 
+import javax.annotation.Nullable;
+
 import static net.minecraftforge.registries.ForgeRegistry.REGISTRIES;
 
 /**
@@ -76,6 +80,11 @@ import static net.minecraftforge.registries.ForgeRegistry.REGISTRIES;
  *
  * <p>Once all packets have been dispatched, we wait for all replies to be received. Once all replies are received, the
  * final login phase will commence.
+ *
+ * <p>Registry data is negotiated by hash. The {@link FMLHandshakeMessages.S2CModList} carries the hash of every synced
+ * registry, and the client answers with the hashes it can already satisfy, from its own registries or the
+ * {@link RegistrySnapshotCache}. Registry packets are held back until that answer arrives, and the snapshot is left out
+ * of those the client already has.
  */
 public class FMLHandshakeHandler {
     static final Marker FMLHSMARKER = MarkerManager.getMarker("FMLHANDSHAKE").setParents(FMLNetworkConstants.NETWORK);
@@ -111,7 +120,10 @@ public class FMLHandshakeHandler {
     private int packetPosition;
     private Map<ResourceLocation, ForgeRegistry.Snapshot> registrySnapshots;
     private Set<ResourceLocation> registriesToReceive;
-    private Map<ResourceLocation, String> registryHashes;
+    // The registry hashes the other side sent us: the server's on the client, the ones the client has data for on the server
+    private volatile Map<ResourceLocation, String> registryHashes;
+    private Map<ResourceLocation, ForgeRegistry.Snapshot> knownSnapshots;
+    private Map<String, ResourceLocation> registryPayloads = Collections.emptyMap();
 
     private FMLHandshakeHandler(NetworkManager networkManager, NetworkDirection side)
     {
@@ -125,6 +137,10 @@ public class FMLHandshakeHandler {
             LOGGER.debug(FMLHSMARKER, "Starting new vanilla network connection.");
         } else {
             this.messageList = NetworkRegistry.gatherLoginPayloads(this.direction, false);
+            if (this.direction == NetworkDirection.LOGIN_TO_CLIENT) {
+                this.registryPayloads = new HashMap<>();
+                RegistryManager.getRegistryNamesForSyncToClient().forEach(name -> this.registryPayloads.put(RegistryManager.getRegistryPacketContext(name), name));
+            }
             LOGGER.debug(FMLHSMARKER, "Starting new modded network connection. Found {} messages to dispatch.", this.messageList.size());
         }
     }
@@ -179,15 +195,36 @@ public class FMLHandshakeHandler {
             c.get().getNetworkManager().closeChannel(new StringTextComponent("Connection closed - mismatched mod channel list"));
             return;
         }
-        FMLNetworkConstants.handshakeChannel.reply(new FMLHandshakeMessages.C2SModListReply(), c.get());
+        this.registriesToReceive = new HashSet<>(serverModList.getRegistries());
+        this.registrySnapshots = Maps.newHashMap();
+        this.registryHashes = serverModList.getRegistryHashes();
+        this.knownSnapshots = findKnownSnapshots(this.registryHashes);
+        final Map<ResourceLocation, String> knownHashes = Maps.newHashMap();
+        this.knownSnapshots.forEach((name, snapshot) -> knownHashes.put(name, snapshot.getHash()));
+        FMLNetworkConstants.handshakeChannel.reply(new FMLHandshakeMessages.C2SModListReply(knownHashes), c.get());
 
         LOGGER.debug(FMLHSMARKER, "Accepted server connection");
         // Set the modded marker on the channel so we know we got packets
         c.get().getNetworkManager().channel().attr(FMLNetworkConstants.FML_NETVERSION).set(FMLNetworkConstants.NETVERSION);
 
-        this.registriesToReceive = new HashSet<>(serverModList.getRegistries());
-        this.registrySnapshots = Maps.newHashMap();
-        LOGGER.debug(REGISTRIES, "Expecting {} registries: {}", ()->this.registriesToReceive.size(), ()->this.registriesToReceive);
+        LOGGER.debug(REGISTRIES, "Expecting {} registries, {} already known: {}", ()->this.registriesToReceive.size(), knownHashes::size, ()->this.registriesToReceive);
+    }
+
+    /**
+     * Find local data for the server's registry hashes, first in our own registries and then in the snapshot cache.
+     */
+    private static Map<ResourceLocation, ForgeRegistry.Snapshot> findKnownSnapshots(final Map<ResourceLocation, String> serverHashes) {
+        final Map<ResourceLocation, ForgeRegistry.Snapshot> known = Maps.newHashMap();
+        serverHashes.forEach((name, hash) -> {
+            ForgeRegistry.Snapshot snapshot = RegistryManager.getSyncSnapshot(name);
+            if (snapshot == null || !hash.equals(snapshot.getHash())) {
+                snapshot = RegistrySnapshotCache.load(hash);
+            }
+            if (snapshot != null) {
+                known.put(name, snapshot);
+            }
+        });
+        return known;
     }
 
     <MSG extends IntSupplier> void handleIndexedMessage(MSG message, Supplier<NetworkEvent.Context> c)
@@ -209,13 +246,26 @@ public class FMLHandshakeHandler {
             c.get().getNetworkManager().closeChannel(new StringTextComponent("Connection closed - mismatched mod channel list"));
             return;
         }
+        this.registryHashes = clientModList.getRegistries();
         LOGGER.debug(FMLHSMARKER, "Accepted client connection mod list");
     }
 
     void handleRegistryMessage(final FMLHandshakeMessages.S2CRegistry registryPacket, final Supplier<NetworkEvent.Context> contextSupplier){
         LOGGER.debug(FMLHSMARKER,"Received registry packet for {}", registryPacket.getRegistryName());
+        ForgeRegistry.Snapshot snapshot = registryPacket.getSnapshot();
+        if (snapshot != null) {
+            RegistrySnapshotCache.store(snapshot);
+        } else {
+            snapshot = this.knownSnapshots.get(registryPacket.getRegistryName());
+        }
+        if (snapshot == null) {
+            LOGGER.error(FMLHSMARKER, "Server sent no data for registry {} and we have none cached, closing connection", registryPacket.getRegistryName());
+            contextSupplier.get().setPacketHandled(true);
+            this.manager.closeChannel(new StringTextComponent("Failed to synchronize registry data from server, closing connection"));
+            return;
+        }
         this.registriesToReceive.remove(registryPacket.getRegistryName());
-        this.registrySnapshots.put(registryPacket.getRegistryName(), registryPacket.getSnapshot());
+        this.registrySnapshots.put(registryPacket.getRegistryName(), snapshot);
 
         boolean continueHandshake = true;
         if (this.registriesToReceive.isEmpty()) {
@@ -235,14 +285,20 @@ public class FMLHandshakeHandler {
         AtomicBoolean successfulConnection = new AtomicBoolean(false);
         CountDownLatch block = new CountDownLatch(1);
         contextSupplier.get().enqueueWork(() -> {
-            LOGGER.debug(FMLHSMARKER, "Injecting registry snapshot from server.");
-            final Multimap<ResourceLocation, ResourceLocation> missingData = GameData.injectSnapshot(registrySnapshots, false, false);
-            LOGGER.debug(FMLHSMARKER, "Snapshot injected.");
-            if (!missingData.isEmpty()) {
-                LOGGER.error(FMLHSMARKER, "Missing registry data for network connection:\n{}", new AdvancedLogMessageAdapter(sb->
-                        missingData.forEach((reg, entry)-> sb.append("\t").append(reg).append(": ").append(entry).append('\n'))));
+            if (isLocalStateCurrent()) {
+                // Injecting would rebuild exactly what we have, so leave the registries alone
+                LOGGER.debug(FMLHSMARKER, "Registry data matches the server, skipping snapshot injection.");
+                successfulConnection.set(true);
+            } else {
+                LOGGER.debug(FMLHSMARKER, "Injecting registry snapshot from server.");
+                final Multimap<ResourceLocation, ResourceLocation> missingData = GameData.injectSnapshot(registrySnapshots, false, false);
+                LOGGER.debug(FMLHSMARKER, "Snapshot injected.");
+                if (!missingData.isEmpty()) {
+                    LOGGER.error(FMLHSMARKER, "Missing registry data for network connection:\n{}", new AdvancedLogMessageAdapter(sb->
+                            missingData.forEach((reg, entry)-> sb.append("\t").append(reg).append(": ").append(entry).append('\n'))));
+                }
+                successfulConnection.set(missingData.isEmpty());
             }
-            successfulConnection.set(missingData.isEmpty());
             block.countDown();
         });
         LOGGER.debug(FMLHSMARKER, "Waiting for registries to load.");
@@ -260,6 +316,16 @@ public class FMLHandshakeHandler {
         return successfulConnection.get();
     }
 
+    private boolean isLocalStateCurrent() {
+        for (Map.Entry<ResourceLocation, String> e : this.registryHashes.entrySet()) {
+            final ForgeRegistry.Snapshot local = RegistryManager.getSyncSnapshot(e.getKey());
+            if (local == null || !e.getValue().equals(local.getHash())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     void handleClientAck(final FMLHandshakeMessages.C2SAcknowledge msg, final Supplier<NetworkEvent.Context> contextSupplier) {
         LOGGER.debug(FMLHSMARKER, "Received acknowledgement from client");
         contextSupplier.get().setPacketHandled(true);
@@ -286,6 +352,14 @@ public class FMLHandshakeHandler {
     {
         if (packetPosition < messageList.size()) {
             NetworkRegistry.LoginPayload message = messageList.get(packetPosition);
+            final ResourceLocation registry = getPayloadRegistry(message);
+            if (registry != null) {
+                // Registry data waits for the client to tell us which registries it already has
+                if (this.registryHashes == null) {
+                    return false;
+                }
+                message = stripKnownRegistry(message, registry);
+            }
 
             LOGGER.debug(FMLHSMARKER, "Sending ticking packet info '{}' to '{}' sequence {}", message.getMessageContext(), message.getChannelName(), packetPosition);
             sentMessages.add(packetPosition);
@@ -302,4 +376,27 @@ public class FMLHandshakeHandler {
         }
         return false;
     }
+
+    @Nullable
+    private ResourceLocation getPayloadRegistry(final NetworkRegistry.LoginPayload message) {
+        if (!FMLNetworkConstants.FML_HANDSHAKE_RESOURCE.equals(message.getChannelName())) {
+            return null;
+        }
+        return this.registryPayloads.get(message.getMessageContext());
+    }
+
+    /**
+     * Replace a registry payload with one without the snapshot if the client reported the same hash for it.
+     */
+    private NetworkRegistry.LoginPayload stripKnownRegistry(final NetworkRegistry.LoginPayload message, final ResourceLocation registry) {
+        final String clientHash = this.registryHashes.get(registry);
+        final ForgeRegistry.Snapshot snapshot = RegistryManager.getSyncSnapshot(registry);
+        if (clientHash == null || snapshot == null || !clientHash.equals(snapshot.getHash())) {
+            return message;
+        }
+        LOGGER.debug(REGISTRIES, "Client already has data for registry {}, not sending it", registry);
+        final PacketBuffer data = new PacketBuffer(Unpooled.buffer());
+        FMLNetworkConstants.handshakeChannel.encodeMessage(new FMLHandshakeMessages.S2CRegistry(registry, null), data);
+        return new NetworkRegistry.LoginPayload(data, message.getChannelName(), message.getMessageContext());
+    }
 }
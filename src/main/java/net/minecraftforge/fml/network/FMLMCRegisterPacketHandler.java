@@ -56,6 +56,10 @@ public class FMLMCRegisterPacketHandler {
                     .forEach(t->t.dispatchEvent(new NetworkEvent.ChannelRegistrationChangeEvent(source, changeType)));
         }
 
+        boolean contains(ResourceLocation location) {
+            return locations.contains(location);
+        }
+
         byte[] toByteArray() {
             ByteArrayOutputStream bos = new ByteArrayOutputStream();
             for (ResourceLocation rl : locations) {
@@ -224,4 +224,12 @@ public class NetworkHooks
         final ClearableRegistry<DimensionType> dimtypereg = (ClearableRegistry<DimensionType>) Registry.DIMENSION_TYPE;
         dimtypereg.register(dimensionType.getId(), dimName, dimensionType);
     }
+
+    /**
+     * Called when the server moves a player, for teleports, respawns and dimension changes.
+     */
+    public static void onPlayerTeleport(ServerPlayerEntity player)
+    {
+        PlayerSpatialIndex.markStale();
+    }
 }
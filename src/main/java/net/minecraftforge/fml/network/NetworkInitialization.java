@@ -107,6 +107,17 @@ class NetworkInitialization {
         return playChannel;
     }
 
+    public static EventNetworkChannel getBundleChannel() {
+        final EventNetworkChannel bundleChannel = NetworkRegistry.ChannelBuilder.
+                named(FMLNetworkConstants.FML_BUNDLE_RESOURCE).
+                clientAcceptedVersions(a -> true).
+                serverAcceptedVersions(a -> true).
+                networkProtocolVersion(() -> FMLNetworkConstants.NETVERSION).
+                eventNetworkChannel();
+        bundleChannel.addListener(PacketBatcher::receive);
+        return bundleChannel;
+    }
+
     public static List<EventNetworkChannel> buildMCRegistrationChannels() {
         final EventNetworkChannel mcRegChannel = NetworkRegistry.ChannelBuilder.
                 named(FMLNetworkConstants.MC_REGISTER_RESOURCE).
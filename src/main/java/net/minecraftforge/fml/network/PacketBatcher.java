@@ -0,0 +1,261 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2019.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.minecraftforge.fml.network;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.NetworkManager;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.fml.LogicalSide;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import static net.minecraftforge.fml.network.FMLNetworkConstants.NETWORK;
+
+/**
+ * Aggregates play messages for a connection into a single {@code fml:bundle} payload, which is flushed once per tick
+ * from the end of the server and client ticks. The receiving side unpacks the bundle and dispatches each entry to its
+ * channel exactly as if it had arrived as its own custom payload packet.
+ * <p>
+ * Bundle format: a flags byte, followed by the entries, each being the channel name, a varint length and the payload.
+ * When {@link #FLAG_COMPRESSED} is set the entries are preceded by their uncompressed length and deflated.
+ *
+ * @see net.minecraftforge.fml.network.simple.SimpleChannel#setBatching(boolean)
+ */
+public class PacketBatcher
+{
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final int FLAG_COMPRESSED = 1;
+    // Matches the vanilla limit on decompressed packets
+    private static final int MAX_UNCOMPRESSED = 2097152;
+    private static final int COMPRESSION_THRESHOLD = Integer.getInteger("forge.network.bundleCompressionThreshold", 1024);
+
+    private static final Map<NetworkManager, Batch> toClient = new ConcurrentHashMap<>();
+    private static final Map<NetworkManager, Batch> toServer = new ConcurrentHashMap<>();
+
+    /**
+     * Append an encoded message to the pending bundle for the connection. The readable bytes of the payload are copied,
+     * so the same buffer may be queued for any number of connections.
+     *
+     * @param manager The connection to send to
+     * @param direction The direction of the message, only play directions can be batched
+     * @param channel The channel the message belongs to
+     * @param payload The encoded message, as built by the channel
+     * @return false if the message can not be batched for this connection and must be sent directly
+     */
+    public static boolean enqueue(NetworkManager manager, NetworkDirection direction, ResourceLocation channel, ByteBuf payload)
+    {
+        final Map<NetworkManager, Batch> batches = getBatches(direction);
+        if (batches == null || !supportsBundles(manager))
+            return false;
+
+        final int length = payload.readableBytes();
+        final int entrySize = PacketBuffer.getVarIntSize(length) + 5 + channel.toString().length() * 3 + length;
+        final int maxSize = getMaxSize(direction);
+        if (entrySize + 1 > maxSize)
+            return false;
+
+        while (true)
+        {
+            final Batch batch = batches.computeIfAbsent(manager, m -> new Batch(m, direction));
+            synchronized (batch)
+            {
+                if (batch.closed)
+                    continue;
+                if (batch.buffer.writerIndex() + entrySize > maxSize)
+                {
+                    // Not enough room left in this bundle, send it now and start another
+                    batches.remove(manager, batch);
+                    batch.closed = true;
+                    batch.send();
+                    continue;
+                }
+                batch.buffer.writeResourceLocation(channel);
+                batch.buffer.writeVarInt(length);
+                batch.buffer.writeBytes(payload, payload.readerIndex(), length);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Send the pending bundles for messages originating from the given side.
+     */
+    public static void flush(LogicalSide side)
+    {
+        final Map<NetworkManager, Batch> batches = side == LogicalSide.SERVER ? toClient : toServer;
+        for (Batch batch : batches.values())
+        {
+            batches.remove(batch.manager, batch);
+            synchronized (batch)
+            {
+                batch.closed = true;
+                if (batch.manager.isChannelOpen())
+                    batch.send();
+            }
+        }
+    }
+
+    static void receive(final NetworkEvent event)
+    {
+        if (event instanceof NetworkEvent.ChannelRegistrationChangeEvent)
+            return;
+        final NetworkEvent.Context context = event.getSource().get();
+        context.setPacketHandled(true);
+        final NetworkManager manager = context.getNetworkManager();
+        final NetworkDirection direction = context.getDirection();
+        final PacketBuffer payload = event.getPayload();
+
+        PacketBuffer entries = payload;
+        if ((payload.readByte() & FLAG_COMPRESSED) != 0)
+            entries = inflate(payload);
+
+        while (entries.isReadable())
+        {
+            final ResourceLocation channel = entries.readResourceLocation();
+            final PacketBuffer data = new PacketBuffer(entries.readBytes(entries.readVarInt()));
+            if (FMLNetworkConstants.FML_BUNDLE_RESOURCE.equals(channel))
+            {
+                LOGGER.warn(NETWORK, "Ignoring nested message bundle from {}", manager.getRemoteAddress());
+                continue;
+            }
+            final ICustomPacket<?> packet = direction.buildPacket(Pair.of(data, Integer.MIN_VALUE), channel);
+            NetworkHooks.onCustomPayload(packet, manager);
+        }
+    }
+
+    private static boolean supportsBundles(NetworkManager manager)
+    {
+        final String version = manager.channel().attr(FMLNetworkConstants.FML_NETVERSION).get();
+        if (version == null || ConnectionType.forVersionFlag(version) != ConnectionType.MODDED)
+            return false;
+        final FMLMCRegisterPacketHandler.ChannelList channels = manager.channel().attr(FMLNetworkConstants.FML_MC_REGISTRY).get();
+        return channels != null && channels.contains(FMLNetworkConstants.FML_BUNDLE_RESOURCE);
+    }
+
+    private static Map<NetworkManager, Batch> getBatches(NetworkDirection direction)
+    {
+        switch (direction)
+        {
+            case PLAY_TO_CLIENT: return toClient;
+            case PLAY_TO_SERVER: return toServer;
+            default: return null;
+        }
+    }
+
+    private static int getMaxSize(NetworkDirection direction)
+    {
+        // Limits enforced on the payload by SCustomPayloadPlayPacket and CCustomPayloadPacket
+        return direction == NetworkDirection.PLAY_TO_CLIENT ? 1048576 : 32767;
+    }
+
+    private static PacketBuffer deflate(ByteBuf entries)
+    {
+        final int length = entries.readableBytes();
+        final byte[] input = new byte[length];
+        entries.getBytes(entries.readerIndex(), input);
+        final Deflater deflater = new Deflater();
+        try
+        {
+            deflater.setInput(input);
+            deflater.finish();
+            final PacketBuffer out = new PacketBuffer(Unpooled.buffer(length / 2 + 16));
+            out.writeByte(FLAG_COMPRESSED);
+            out.writeVarInt(length);
+            final byte[] chunk = new byte[8192];
+            while (!deflater.finished())
+                out.writeBytes(chunk, 0, deflater.deflate(chunk));
+            return out;
+        }
+        finally
+        {
+            deflater.end();
+        }
+    }
+
+    private static PacketBuffer inflate(PacketBuffer payload)
+    {
+        final int length = payload.readVarInt();
+        if (length < 0 || length > MAX_UNCOMPRESSED)
+            throw new IllegalStateException("Invalid message bundle size " + length);
+        final byte[] input = new byte[payload.readableBytes()];
+        payload.readBytes(input);
+        final byte[] output = new byte[length];
+        final Inflater inflater = new Inflater();
+        try
+        {
+            inflater.setInput(input);
+            if (inflater.inflate(output) != length || !inflater.finished())
+                throw new IllegalStateException("Message bundle did not match its declared size " + length);
+        }
+        catch (DataFormatException e)
+        {
+            throw new IllegalStateException("Corrupt message bundle", e);
+        }
+        finally
+        {
+            inflater.end();
+        }
+        return new PacketBuffer(Unpooled.wrappedBuffer(output));
+    }
+
+    private static class Batch
+    {
+        private final NetworkManager manager;
+        private final NetworkDirection direction;
+        private final PacketBuffer buffer = new PacketBuffer(Unpooled.buffer());
+        private boolean closed;
+
+        private Batch(NetworkManager manager, NetworkDirection direction)
+        {
+            this.manager = manager;
+            this.direction = direction;
+        }
+
+        private void send()
+        {
+            if (!buffer.isReadable())
+                return;
+            PacketBuffer bundle = null;
+            // Connections with vanilla compression enabled already compress the bundle as a whole
+            if (COMPRESSION_THRESHOLD >= 0 && buffer.readableBytes() >= COMPRESSION_THRESHOLD &&
+                !manager.isLocalChannel() && manager.channel().pipeline().get("compress") == null)
+            {
+                bundle = deflate(buffer);
+                if (bundle.readableBytes() > buffer.readableBytes())
+                    bundle = null; // Incompressible, and might no longer fit in a single packet
+            }
+            if (bundle == null)
+            {
+                bundle = new PacketBuffer(Unpooled.buffer(buffer.readableBytes() + 1));
+                bundle.writeByte(0);
+                bundle.writeBytes(buffer);
+            }
+            manager.sendPacket(direction.buildPacket(Pair.of(bundle, Integer.MIN_VALUE), FMLNetworkConstants.FML_BUNDLE_RESOURCE).getThis());
+        }
+    }
+}
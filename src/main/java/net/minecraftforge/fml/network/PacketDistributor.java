@@ -31,6 +31,7 @@ import net.minecraft.world.dimension.DimensionType;
 import net.minecraftforge.fml.LogicalSide;
 import net.minecraftforge.fml.LogicalSidedProvider;
 
+import javax.annotation.Nullable;
 import java.util.List;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
@@ -49,31 +50,31 @@ public class PacketDistributor<T> {
      * <br/>
      * {@link #with(Supplier)} Player
      */
-    public static final PacketDistributor<ServerPlayerEntity> PLAYER = new PacketDistributor<>(PacketDistributor::playerConsumer, NetworkDirection.PLAY_TO_CLIENT);
+    public static final PacketDistributor<ServerPlayerEntity> PLAYER = new PacketDistributor<>(PacketDistributor::playerConsumer, PacketDistributor::playerRecipients, NetworkDirection.PLAY_TO_CLIENT);
     /**
      * Send to everyone in the dimension specified in the Supplier
      * <br/>
      * {@link #with(Supplier)} DimensionType
      */
-    public static final PacketDistributor<DimensionType> DIMENSION = new PacketDistributor<>(PacketDistributor::playerListDimConsumer, NetworkDirection.PLAY_TO_CLIENT);
+    public static final PacketDistributor<DimensionType> DIMENSION = new PacketDistributor<>(PacketDistributor::playerListDimConsumer, PacketDistributor::playerListDimRecipients, NetworkDirection.PLAY_TO_CLIENT);
     /**
      * Send to everyone near the {@link TargetPoint} specified in the Supplier
      * <br/>
      * {@link #with(Supplier)} TargetPoint
      */
-    public static final PacketDistributor<TargetPoint> NEAR = new PacketDistributor<>(PacketDistributor::playerListPointConsumer, NetworkDirection.PLAY_TO_CLIENT);
+    public static final PacketDistributor<TargetPoint> NEAR = new PacketDistributor<>(PacketDistributor::playerListPointConsumer, PacketDistributor::playerListPointRecipients, NetworkDirection.PLAY_TO_CLIENT);
     /**
      * Send to everyone
      * <br/>
      * {@link #noArg()}
      */
-    public static final PacketDistributor<Void> ALL = new PacketDistributor<>(PacketDistributor::playerListAll, NetworkDirection.PLAY_TO_CLIENT);
+    public static final PacketDistributor<Void> ALL = new PacketDistributor<>(PacketDistributor::playerListAll, PacketDistributor::playerListAllRecipients, NetworkDirection.PLAY_TO_CLIENT);
     /**
      * Send to the server (CLIENT to SERVER)
      * <br/>
      * {@link #noArg()}
      */
-    public static final PacketDistributor<Void> SERVER = new PacketDistributor<>(PacketDistributor::clientToServer, NetworkDirection.PLAY_TO_SERVER);
+    public static final PacketDistributor<Void> SERVER = new PacketDistributor<>(PacketDistributor::clientToServer, PacketDistributor::clientToServerRecipients, NetworkDirection.PLAY_TO_SERVER);
     /**
      * Send to all tracking the Entity in the Supplier
      * <br/>
@@ -91,13 +92,15 @@ public class PacketDistributor<T> {
      * <br/>
      * {@link #with(Supplier)} Chunk
      */
-    public static final PacketDistributor<Chunk> TRACKING_CHUNK = new PacketDistributor<>(PacketDistributor::trackingChunk, NetworkDirection.PLAY_TO_CLIENT);
+    public static final PacketDistributor<Chunk> TRACKING_CHUNK = new PacketDistributor<>(PacketDistributor::trackingChunk, PacketDistributor::trackingChunkRecipients, NetworkDirection.PLAY_TO_CLIENT);
     /**
      * Send to the supplied list of NetworkManager instances in the Supplier
      * <br/>
      * {@link #with(Supplier)} List of NetworkManager
      */
-    public static final PacketDistributor<List<NetworkManager>> NMLIST = new PacketDistributor<>(PacketDistributor::networkManagerList, NetworkDirection.PLAY_TO_CLIENT);
+    public static final PacketDistributor<List<NetworkManager>> NMLIST = new PacketDistributor<>(PacketDistributor::networkManagerList, PacketDistributor::networkManagerListRecipients, NetworkDirection.PLAY_TO_CLIENT);
+
+    private static final PlayerSpatialIndex NEAR_INDEX = new PlayerSpatialIndex();
 
     public static final class TargetPoint {
 
@@ -168,9 +171,12 @@ public class PacketDistributor<T> {
      */
     public static class PacketTarget {
         private final Consumer<IPacket<?>> packetConsumer;
+        @Nullable
+        private final Consumer<Consumer<NetworkManager>> recipients;
         private final PacketDistributor<?> distributor;
-        PacketTarget(final Consumer<IPacket<?>> packetConsumer, final PacketDistributor<?> distributor) {
+        PacketTarget(final Consumer<IPacket<?>> packetConsumer, @Nullable final Consumer<Consumer<NetworkManager>> recipients, final PacketDistributor<?> distributor) {
             this.packetConsumer = packetConsumer;
+            this.recipients = recipients;
             this.distributor = distributor;
         }
 
@@ -178,6 +184,24 @@ public class PacketDistributor<T> {
             packetConsumer.accept(packet);
         }
 
+        /**
+         * @return true if the connections this target sends to can be listed with {@link #forEachRecipient(Consumer)}
+         */
+        public boolean hasRecipients() {
+            return recipients != null;
+        }
+
+        /**
+         * Visit each connection this target would send a packet to. Only available if {@link #hasRecipients()}.
+         * @param consumer The consumer of each connection
+         */
+        public void forEachRecipient(Consumer<NetworkManager> consumer) {
+            if (recipients == null) {
+                throw new IllegalStateException("Recipients of this packet target are unknown");
+            }
+            recipients.accept(consumer);
+        }
+
         public NetworkDirection getDirection() {
             return distributor.direction;
         }
@@ -185,10 +209,22 @@ public class PacketDistributor<T> {
     }
 
     private final BiFunction<PacketDistributor<T>, Supplier<T>, Consumer<IPacket<?>>> functor;
+    @Nullable
+    private final BiFunction<PacketDistributor<T>, Supplier<T>, Consumer<Consumer<NetworkManager>>> recipients;
     private final NetworkDirection direction;
 
     public PacketDistributor(BiFunction<PacketDistributor<T>, Supplier<T>, Consumer<IPacket<?>>> functor, NetworkDirection direction) {
+        this(functor, null, direction);
+    }
+
+    /**
+     * @param functor Sends a packet to the target
+     * @param recipients Lists the connections of the target, allowing messages to be batched per connection
+     * @param direction The direction packets are sent in
+     */
+    public PacketDistributor(BiFunction<PacketDistributor<T>, Supplier<T>, Consumer<IPacket<?>>> functor, @Nullable BiFunction<PacketDistributor<T>, Supplier<T>, Consumer<Consumer<NetworkManager>>> recipients, NetworkDirection direction) {
         this.functor = functor;
+        this.recipients = recipients;
         this.direction = direction;
     }
 
@@ -198,7 +234,7 @@ public class PacketDistributor<T> {
      * @return A curried instance
      */
     public PacketTarget with(Supplier<T> input) {
-        return new PacketTarget(functor.apply(this, input), this);
+        return new PacketTarget(functor.apply(this, input), recipients == null ? null : recipients.apply(this, input), this);
     }
 
     /**
@@ -209,7 +245,7 @@ public class PacketDistributor<T> {
      * @return A curried instance
      */
     public PacketTarget noArg() {
-        return new PacketTarget(functor.apply(this, ()->null), this);
+        return new PacketTarget(functor.apply(this, ()->null), recipients == null ? null : recipients.apply(this, ()->null), this);
     }
 
     private Consumer<IPacket<?>> playerConsumer(final Supplier<ServerPlayerEntity> entityPlayerMPSupplier) {
@@ -230,7 +266,7 @@ public class PacketDistributor<T> {
     private Consumer<IPacket<?>> playerListPointConsumer(final Supplier<TargetPoint> targetPointSupplier) {
         return p -> {
             final TargetPoint tp = targetPointSupplier.get();
-            getServer().getPlayerList().sendToAllNearExcept(tp.excluded, tp.x, tp.y, tp.z, tp.r2, tp.dim, p);
+            NEAR_INDEX.forEachNear(getServer(), tp.excluded, tp.x, tp.y, tp.z, tp.r2, tp.dim, player -> player.connection.sendPacket(p));
         };
     }
 
@@ -259,6 +295,47 @@ public class PacketDistributor<T> {
         return p -> nmListSupplier.get().forEach(nm->nm.sendPacket(p));
     }
 
+    private Consumer<Consumer<NetworkManager>> playerRecipients(final Supplier<ServerPlayerEntity> entityPlayerMPSupplier) {
+        return c -> c.accept(entityPlayerMPSupplier.get().connection.netManager);
+    }
+
+    private Consumer<Consumer<NetworkManager>> playerListDimRecipients(final Supplier<DimensionType> dimensionTypeSupplier) {
+        return c -> {
+            final DimensionType dim = dimensionTypeSupplier.get();
+            for (ServerPlayerEntity player : getServer().getPlayerList().getPlayers()) {
+                if (player.dimension == dim) {
+                    c.accept(player.connection.netManager);
+                }
+            }
+        };
+    }
+
+    private Consumer<Consumer<NetworkManager>> playerListAllRecipients(final Supplier<Void> voidSupplier) {
+        return c -> getServer().getPlayerList().getPlayers().forEach(player -> c.accept(player.connection.netManager));
+    }
+
+    private Consumer<Consumer<NetworkManager>> clientToServerRecipients(final Supplier<Void> voidSupplier) {
+        return c -> c.accept(Minecraft.getInstance().getConnection().getNetworkManager());
+    }
+
+    private Consumer<Consumer<NetworkManager>> playerListPointRecipients(final Supplier<TargetPoint> targetPointSupplier) {
+        return c -> {
+            final TargetPoint tp = targetPointSupplier.get();
+            NEAR_INDEX.forEachNear(getServer(), tp.excluded, tp.x, tp.y, tp.z, tp.r2, tp.dim, player -> c.accept(player.connection.netManager));
+        };
+    }
+
+    private Consumer<Consumer<NetworkManager>> trackingChunkRecipients(final Supplier<Chunk> chunkPosSupplier) {
+        return c -> {
+            final Chunk chunk = chunkPosSupplier.get();
+            ((ServerChunkProvider)chunk.getWorld().getChunkProvider()).chunkManager.getTrackingPlayers(chunk.getPos(), false).forEach(e -> c.accept(e.connection.netManager));
+        };
+    }
+
+    private Consumer<Consumer<NetworkManager>> networkManagerListRecipients(final Supplier<List<NetworkManager>> nmListSupplier) {
+        return c -> nmListSupplier.get().forEach(c);
+    }
+
     private MinecraftServer getServer() {
         return LogicalSidedProvider.INSTANCE.get(LogicalSide.SERVER);
     }
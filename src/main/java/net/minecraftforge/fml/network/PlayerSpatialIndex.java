@@ -0,0 +1,153 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2019.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.minecraftforge.fml.network;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.entity.player.ServerPlayerEntity;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.dimension.DimensionType;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.eventbus.api.EventPriority;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Buckets the players of each dimension by chunk, so that {@link PacketDistributor#NEAR} only has to look at the
+ * players close to the target point. The index is rebuilt the first time it is queried in a server tick, and again
+ * whenever a player teleports, changes dimension, logs in or logs out, since those can move a player further than
+ * the margin below.
+ */
+class PlayerSpatialIndex
+{
+    // Players can move a little within the tick after the index was built, look one cell further to still find them
+    private static final int MARGIN = 16;
+    private static volatile int changes;
+
+    static
+    {
+        MinecraftForge.EVENT_BUS.addListener(EventPriority.HIGHEST, true, PlayerEvent.PlayerChangedDimensionEvent.class, e -> markStale());
+        MinecraftForge.EVENT_BUS.addListener(EventPriority.HIGHEST, true, PlayerEvent.PlayerLoggedInEvent.class, e -> markStale());
+        MinecraftForge.EVENT_BUS.addListener(EventPriority.HIGHEST, true, PlayerEvent.PlayerLoggedOutEvent.class, e -> markStale());
+        MinecraftForge.EVENT_BUS.addListener(EventPriority.HIGHEST, true, PlayerEvent.PlayerRespawnEvent.class, e -> markStale());
+    }
+
+    private final Map<DimensionType, Long2ObjectMap<List<ServerPlayerEntity>>> cells = new IdentityHashMap<>();
+    private final Map<DimensionType, List<ServerPlayerEntity>> players = new IdentityHashMap<>();
+    private MinecraftServer server;
+    private int builtTick = -1;
+    private int builtCount = -1;
+    private int builtChanges;
+
+    /**
+     * Forces the next query to rebuild the index, called when a player is moved by more than normal movement.
+     */
+    static void markStale()
+    {
+        changes++;
+    }
+
+    /**
+     * Visit the players within the radius of the point, with the same selection as
+     * {@link net.minecraft.server.management.PlayerList#sendToAllNearExcept}.
+     */
+    void forEachNear(MinecraftServer server, ServerPlayerEntity excluded, double x, double y, double z, double radius, DimensionType dim, Consumer<ServerPlayerEntity> consumer)
+    {
+        final List<ServerPlayerEntity> found = new ArrayList<>();
+        synchronized (this)
+        {
+            rebuildIfStale(server);
+            final List<ServerPlayerEntity> inDim = players.get(dim);
+            if (inDim == null)
+                return;
+
+            final double range = radius + MARGIN;
+            final int minX = MathHelper.floor(x - range) >> 4;
+            final int maxX = MathHelper.floor(x + range) >> 4;
+            final int minZ = MathHelper.floor(z - range) >> 4;
+            final int maxZ = MathHelper.floor(z + range) >> 4;
+            if ((long)(maxX - minX + 1) * (maxZ - minZ + 1) >= inDim.size())
+            {
+                // Fewer players than cells to look at, a plain scan is cheaper
+                for (ServerPlayerEntity player : inDim)
+                    if (isNear(player, excluded, x, y, z, radius, dim))
+                        found.add(player);
+            }
+            else
+            {
+                final Long2ObjectMap<List<ServerPlayerEntity>> dimCells = cells.get(dim);
+                for (int cx = minX; cx <= maxX; cx++)
+                {
+                    for (int cz = minZ; cz <= maxZ; cz++)
+                    {
+                        final List<ServerPlayerEntity> cell = dimCells.get(ChunkPos.asLong(cx, cz));
+                        if (cell == null)
+                            continue;
+                        for (ServerPlayerEntity player : cell)
+                            if (isNear(player, excluded, x, y, z, radius, dim))
+                                found.add(player);
+                    }
+                }
+            }
+        }
+        found.forEach(consumer);
+    }
+
+    private static boolean isNear(ServerPlayerEntity player, ServerPlayerEntity excluded, double x, double y, double z, double radius, DimensionType dim)
+    {
+        if (player == excluded || player.dimension != dim)
+            return false;
+        final double dx = x - player.getPosX();
+        final double dy = y - player.getPosY();
+        final double dz = z - player.getPosZ();
+        return dx * dx + dy * dy + dz * dz < radius * radius;
+    }
+
+    private void rebuildIfStale(MinecraftServer server)
+    {
+        final List<ServerPlayerEntity> all = server.getPlayerList().getPlayers();
+        final int changes = PlayerSpatialIndex.changes;
+        if (this.server == server && builtTick == server.getTickCounter() && builtCount == all.size() && builtChanges == changes)
+            return;
+
+        this.server = server;
+        this.builtChanges = changes;
+        this.builtTick = server.getTickCounter();
+        this.builtCount = all.size();
+        cells.clear();
+        players.clear();
+        for (ServerPlayerEntity player : all)
+        {
+            players.computeIfAbsent(player.dimension, d -> new ArrayList<>()).add(player);
+            final long key = ChunkPos.asLong(MathHelper.floor(player.getPosX()) >> 4, MathHelper.floor(player.getPosZ()) >> 4);
+            final Long2ObjectMap<List<ServerPlayerEntity>> dimCells = cells.computeIfAbsent(player.dimension, d -> new Long2ObjectOpenHashMap<>());
+            List<ServerPlayerEntity> cell = dimCells.get(key);
+            if (cell == null)
+                dimCells.put(key, cell = new ArrayList<>());
+            cell.add(player);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2019.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.fml.network;
+
+import com.google.common.hash.Hashing;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.PacketBuffer;
+import net.minecraftforge.fml.loading.FMLPaths;
+import net.minecraftforge.registries.ForgeRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+
+import static net.minecraftforge.registries.ForgeRegistry.REGISTRIES;
+
+/**
+ * Client side store of registry snapshots received from servers, keyed by {@link ForgeRegistry.Snapshot#getHash()}.
+ *
+ * <p>Each file holds the {@link ForgeRegistry.Snapshot#getPacketData()} bytes, so a file is only trusted if it still hashes
+ * to its own name. The least recently used files are removed once there are more than {@link #MAX_ENTRIES}.
+ */
+class RegistrySnapshotCache {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+    private static final String EXTENSION = ".snapshot";
+    private static final int MAX_ENTRIES = 256;
+    private static Path cacheDir;
+
+    private static synchronized Path getCacheDir() {
+        if (cacheDir == null) {
+            cacheDir = FMLPaths.getOrCreateGameRelativePath(Paths.get(".fml", "registrycache"), "registry snapshot cache");
+        }
+        return cacheDir;
+    }
+
+    @Nullable
+    private static Path getFile(final String hash) {
+        // The hash comes from the server, never let it pick anything but a plain file name
+        return HASH.matcher(hash).matches() ? getCacheDir().resolve(hash + EXTENSION) : null;
+    }
+
+    /**
+     * @return the cached snapshot with the given hash, or null if there is no valid one
+     */
+    @Nullable
+    static ForgeRegistry.Snapshot load(final String hash) {
+        final Path file = getFile(hash);
+        if (file == null || !Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            final byte[] data = Files.readAllBytes(file);
+            if (!hash.equals(Hashing.sha256().hashBytes(data).toString())) {
+                LOGGER.debug(REGISTRIES, "Discarding corrupt registry snapshot cache {}", file);
+                Files.deleteIfExists(file);
+                return null;
+            }
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return ForgeRegistry.Snapshot.read(new PacketBuffer(Unpooled.wrappedBuffer(data)));
+        } catch (IOException | RuntimeException e) {
+            LOGGER.debug(REGISTRIES, "Unable to read registry snapshot cache {}", file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Store a snapshot received from the server. Failures are logged and otherwise ignored, the next connection will
+     * just ask for the data again.
+     */
+    static void store(final ForgeRegistry.Snapshot snapshot) {
+        final Path file = getFile(snapshot.getHash());
+        if (file == null || Files.isRegularFile(file)) {
+            return;
+        }
+        final Path tmp = file.resolveSibling(file.getFileName() + "." + Thread.currentThread().getId() + ".tmp");
+        try {
+            final PacketBuffer data = snapshot.getPacketData();
+            final byte[] bytes = new byte[data.readableBytes()];
+            data.readBytes(bytes);
+            Files.write(tmp, bytes);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.debug(REGISTRIES, "Unable to write registry snapshot cache {}", file, e);
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException ignored) {
+            }
+            return;
+        }
+        prune();
+    }
+
+    private static void prune() {
+        try (Stream<Path> files = Files.list(getCacheDir())) {
+            final List<Path> entries = files.filter(p -> p.getFileName().toString().endsWith(EXTENSION)).collect(Collectors.toList());
+            if (entries.size() <= MAX_ENTRIES) {
+                return;
+            }
+            entries.sort(Comparator.comparingLong(RegistrySnapshotCache::lastModified));
+            for (Path p : entries.subList(0, entries.size() - MAX_ENTRIES)) {
+                Files.deleteIfExists(p);
+            }
+        } catch (IOException e) {
+            LOGGER.debug(REGISTRIES, "Unable to prune the registry snapshot cache", e);
+        }
+    }
+
+    private static long lastModified(final Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -45,6 +45,7 @@ public class SimpleChannel
     private final IndexedMessageCodec indexedCodec;
     private final Optional<Consumer<NetworkEvent.ChannelRegistrationChangeEvent>> registryChangeConsumer;
     private List<Function<Boolean, ? extends List<? extends Pair<String,?>>>> loginPackets;
+    private volatile boolean batching;
 
     public SimpleChannel(NetworkInstance instance) {
         this(instance, Optional.empty());
@@ -106,6 +107,11 @@ public class SimpleChannel
 
     public <MSG> void sendTo(MSG message, NetworkManager manager, NetworkDirection direction)
     {
+        if (batching)
+        {
+            sendBatched(toBuffer(message), manager, direction);
+            return;
+        }
         manager.sendPacket(toVanillaPacket(message, direction));
     }
 
@@ -121,9 +127,48 @@ public class SimpleChannel
      * @param <MSG> The type of the message
      */
     public <MSG> void send(PacketDistributor.PacketTarget target, MSG message) {
+        if (batching && target.hasRecipients()) {
+            // Encode once, every recipient's bundle copies the same bytes and any that can't take a bundle share one packet
+            final Pair<PacketBuffer, Integer> encoded = toBuffer(message);
+            final NetworkDirection direction = target.getDirection();
+            final IPacket<?>[] direct = new IPacket<?>[1];
+            target.forEachRecipient(manager -> {
+                if (!PacketBatcher.enqueue(manager, direction, instance.getChannelName(), encoded.getLeft())) {
+                    if (direct[0] == null) {
+                        direct[0] = direction.buildPacket(encoded, instance.getChannelName()).getThis();
+                    }
+                    manager.sendPacket(direct[0]);
+                }
+            });
+            return;
+        }
+        // The payload is only ever read when the packet is written, so one packet is shared by every recipient
         target.send(toVanillaPacket(message, target.getDirection()));
     }
 
+    private void sendBatched(Pair<PacketBuffer, Integer> encoded, NetworkManager manager, NetworkDirection direction) {
+        if (!PacketBatcher.enqueue(manager, direction, instance.getChannelName(), encoded.getLeft())) {
+            manager.sendPacket(direction.buildPacket(encoded, instance.getChannelName()).getThis());
+        }
+    }
+
+    /**
+     * Batch the play messages sent through this channel. Instead of a packet per message, messages are gathered per
+     * connection and sent together as a single bundle at the end of the tick. This trades up to a tick of latency
+     * for far fewer packets when a channel sends many small messages.
+     * <p>
+     * Messages for connections that can not receive bundles, and messages too large for one, are sent immediately.
+     * Messages to a {@link PacketDistributor.PacketTarget} that can not list its recipients are always sent immediately,
+     * which may reorder them relative to batched messages.
+     *
+     * @param batching whether to batch messages
+     * @return this channel
+     */
+    public SimpleChannel setBatching(boolean batching) {
+        this.batching = batching;
+        return this;
+    }
+
     public <MSG> IPacket<?> toVanillaPacket(MSG message, NetworkDirection direction)
     {
         return direction.buildPacket(toBuffer(message), instance.getChannelName()).getThis();
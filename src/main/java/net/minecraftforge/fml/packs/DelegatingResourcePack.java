@@ -25,11 +25,20 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
+import javax.annotation.Nullable;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+
 import net.minecraft.resources.ResourcePack;
 import net.minecraft.resources.ResourcePackFileNotFoundException;
 import net.minecraft.resources.ResourcePackType;
@@ -39,7 +48,8 @@ import net.minecraft.util.ResourceLocation;
 
 public class DelegatingResourcePack extends ResourcePack
 {
-    private final List<DelegatableResourcePack> delegates = new ArrayList<>();
+    private volatile List<DelegatableResourcePack> delegates = ImmutableList.of();
+    private volatile Map<ResourcePackType, Map<String, List<DelegatableResourcePack>>> namespacesAssets;
     private final String name;
     private final PackMetadataSection packInfo;
     
@@ -56,12 +66,70 @@ public class DelegatingResourcePack extends ResourcePack
         packs.forEach(this::addDelegate);
     }
 
-    public void addDelegate(DelegatableResourcePack pack)
+    public synchronized void addDelegate(DelegatableResourcePack pack)
+    {
+        this.delegates = ImmutableList.<DelegatableResourcePack>builder().addAll(this.delegates).add(pack).build();
+        this.namespacesAssets = null;
+    }
+
+    /**
+     * The delegates providing each namespace. Built once, and only when every delegate is a jar mod, since the
+     * namespaces of a directory (dev environments) or any other kind of pack can change between reloads.
+     * @return null if the delegates can't be indexed
+     */
+    @Nullable
+    private Map<ResourcePackType, Map<String, List<DelegatableResourcePack>>> getNamespaceIndex()
+    {
+        Map<ResourcePackType, Map<String, List<DelegatableResourcePack>>> ret = this.namespacesAssets;
+        if (ret == null)
+        {
+            for (DelegatableResourcePack pack : delegates)
+            {
+                if (!(pack instanceof ModFileResourcePack) || !((ModFileResourcePack)pack).isJar())
+                    return null;
+            }
+            synchronized (this)
+            {
+                ret = this.namespacesAssets;
+                if (ret == null)
+                {
+                    ret = new EnumMap<>(ResourcePackType.class);
+                    for (ResourcePackType type : ResourcePackType.values())
+                    {
+                        final Map<String, List<DelegatableResourcePack>> map = new HashMap<>();
+                        for (DelegatableResourcePack pack : delegates)
+                            for (String namespace : pack.getResourceNamespaces(type))
+                                map.computeIfAbsent(namespace, k -> new ArrayList<>()).add(pack);
+                        ret.put(type, ImmutableMap.copyOf(Maps.transformValues(map, ImmutableList::copyOf)));
+                    }
+                    this.namespacesAssets = ret;
+                }
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * @return the delegates that may contain the given path. For paths of the form {@code <type>/<namespace>/...}
+     *         this is only the packs which provide that namespace, for anything else it is every delegate.
+     */
+    private List<DelegatableResourcePack> getCandidatePacks(String resourcePath)
     {
-        synchronized(delegates)
+        for (ResourcePackType type : ResourcePackType.values())
         {
-            this.delegates.add(pack);
+            final String root = type.getDirectoryName();
+            if (resourcePath.length() > root.length() + 1 && resourcePath.startsWith(root) && resourcePath.charAt(root.length()) == '/')
+            {
+                final int nsEnd = resourcePath.indexOf('/', root.length() + 1);
+                if (nsEnd < 0)
+                    break;
+                final Map<ResourcePackType, Map<String, List<DelegatableResourcePack>>> index = getNamespaceIndex();
+                if (index == null)
+                    break;
+                return index.get(type).getOrDefault(resourcePath.substring(root.length() + 1, nsEnd), Collections.emptyList());
+            }
         }
+        return delegates;
     }
     
     @Override
@@ -84,34 +152,29 @@ public class DelegatingResourcePack extends ResourcePack
     @Override
     public Collection<ResourceLocation> getAllResourceLocations(ResourcePackType type, String pathIn, String pathIn2, int maxDepth, Predicate<String> filter)
     {
-        synchronized(delegates)
-        {
-            return delegates.stream()
-                    .flatMap(r -> r.getAllResourceLocations(type, pathIn, pathIn2, maxDepth, filter).stream())
-                    .collect(Collectors.toList());
-        }
+        final Map<ResourcePackType, Map<String, List<DelegatableResourcePack>>> index = getNamespaceIndex();
+        return (index == null ? delegates : index.get(type).getOrDefault(pathIn, Collections.emptyList())).stream()
+                .flatMap(r -> r.getAllResourceLocations(type, pathIn, pathIn2, maxDepth, filter).stream())
+                .collect(Collectors.toList());
     }
 
     @Override
     public Set<String> getResourceNamespaces(ResourcePackType type)
     {
-        synchronized (delegates)
-        {
-            return delegates.stream()
-                    .flatMap(r -> r.getResourceNamespaces(type).stream())
-                    .collect(Collectors.toSet());
-        }
+        final Map<ResourcePackType, Map<String, List<DelegatableResourcePack>>> index = getNamespaceIndex();
+        if (index != null)
+            return index.get(type).keySet();
+        return delegates.stream()
+                .flatMap(r -> r.getResourceNamespaces(type).stream())
+                .collect(Collectors.toSet());
     }
 
     @Override
     public void close() throws IOException
     {
-        synchronized(delegates)
+        for (ResourcePack pack : delegates)
         {
-            for (ResourcePack pack : delegates)
-            {
-                pack.close();
-            }
+            pack.close();
         }
     }
 
@@ -120,14 +183,11 @@ public class DelegatingResourcePack extends ResourcePack
     {
         if (!resourcePath.equals("pack.png")) // Mods shouldn't be able to mess with the pack icon
         {
-            synchronized (delegates)
+            for (DelegatableResourcePack pack : getCandidatePacks(resourcePath))
             {
-                for (DelegatableResourcePack pack : delegates)
+                if (pack.resourceExists(resourcePath))
                 {
-                    if (pack.resourceExists(resourcePath))
-                    {
-                        return pack.getInputStream(resourcePath);
-                    }
+                    return pack.getInputStream(resourcePath);
                 }
             }
         }
@@ -137,14 +197,11 @@ public class DelegatingResourcePack extends ResourcePack
     @Override
     protected boolean resourceExists(String resourcePath)
     {
-        synchronized (delegates)
+        for (DelegatableResourcePack pack : getCandidatePacks(resourcePath))
         {
-            for (DelegatableResourcePack pack : delegates)
+            if (pack.resourceExists(resourcePath))
             {
-                if (pack.resourceExists(resourcePath))
-                {
-                    return true;
-                }
+                return true;
             }
         }
         return false;
@@ -30,29 +30,56 @@ import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import javax.annotation.Nullable;
 
 import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 public class ModFileResourcePack extends DelegatableResourcePack
 {
+    private static final Logger LOGGER = LogManager.getLogger();
     private final ModFile modFile;
     private ResourcePackInfo packInfo;
+    private final boolean isJar;
+    private volatile ResourceIndex index;
 
     public ModFileResourcePack(final ModFile modFile)
     {
         super(new File("dummy"));
         this.modFile = modFile;
+        this.isJar = Files.isRegularFile(modFile.getFilePath());
     }
 
     public ModFile getModFile() {
         return this.modFile;
     }
 
+    /**
+     * Whether this pack is backed by a jar, whose contents can't change while the game runs.
+     */
+    boolean isJar() {
+        return this.isJar;
+    }
+
     @Override
     public String getName()
     {
@@ -69,12 +96,39 @@ public class ModFileResourcePack extends DelegatableResourcePack
     @Override
     public boolean resourceExists(String name)
     {
+        final ResourceIndex index = getIndex();
+        if (index != null && index.covers(name))
+            return index.files.contains(name);
         return Files.exists(modFile.getLocator().findPath(modFile, name));
     }
 
 
     @Override
     public Collection<ResourceLocation> getAllResourceLocations(ResourcePackType type, String resourceNamespace, String pathIn, int maxDepth, Predicate<String> filter)
+    {
+        final ResourceIndex index = getIndex();
+        if (index == null)
+            return walkResourceLocations(type, pathIn, maxDepth, filter);
+        final List<String> paths = index.byNamespace.get(type).get(resourceNamespace);
+        if (paths == null)
+            return Collections.emptyList();
+
+        final String prefix = pathIn.isEmpty() || pathIn.endsWith("/") ? pathIn : pathIn + "/";
+        final List<ResourceLocation> ret = new ArrayList<>();
+        for (String path : paths)
+        {
+            if (!path.startsWith(prefix) || path.endsWith(".mcmeta")) // Make sure the target path is inside this one, and ignore .mcmeta files
+                continue;
+            if (countNames(path) > maxDepth) // Make sure the depth is within bounds, ignoring domain
+                continue;
+            if (!filter.test(path.substring(path.lastIndexOf('/') + 1))) // Test the file name against the predicate
+                continue;
+            ret.add(new ResourceLocation(resourceNamespace, path));
+        }
+        return ret;
+    }
+
+    private Collection<ResourceLocation> walkResourceLocations(ResourcePackType type, String pathIn, int maxDepth, Predicate<String> filter)
     {
         try
         {
@@ -99,9 +153,22 @@ public class ModFileResourcePack extends DelegatableResourcePack
         }
     }
 
+    private static int countNames(String path)
+    {
+        int count = 1;
+        for (int i = 0; i < path.length(); i++)
+            if (path.charAt(i) == '/')
+                count++;
+        return count;
+    }
+
     @Override
     public Set<String> getResourceNamespaces(ResourcePackType type)
     {
+        final ResourceIndex index = getIndex();
+        if (index != null)
+            return index.byNamespace.get(type).keySet();
+
         try {
             Path root = modFile.getLocator().findPath(modFile, type.getDirectoryName()).toAbsolutePath();
             return Files.walk(root,1)
@@ -117,6 +184,41 @@ public class ModFileResourcePack extends DelegatableResourcePack
         }
     }
 
+    /**
+     * Jar mods are indexed once, on first use, from the zip central directory. A jar is not
+     * rewritten underneath a running game, so there is no need to walk it again on every reload.
+     * Exploded directories (dev environments) can change between reloads, so they are never
+     * indexed and this returns null, leaving callers to walk the directory as before.
+     */
+    @Nullable
+    private ResourceIndex getIndex()
+    {
+        if (!isJar)
+            return null;
+        ResourceIndex ret = this.index;
+        if (ret == null)
+        {
+            synchronized (this)
+            {
+                ret = this.index;
+                if (ret == null)
+                {
+                    try
+                    {
+                        ret = ResourceIndex.build(modFile);
+                    }
+                    catch (IOException e)
+                    {
+                        LOGGER.error("Failed to index resources in {}", modFile.getFileName(), e);
+                        ret = ResourceIndex.EMPTY;
+                    }
+                    this.index = ret;
+                }
+            }
+        }
+        return ret == ResourceIndex.EMPTY ? null : ret;
+    }
+
     public InputStream getResourceStream(ResourcePackType type, ResourceLocation location) throws IOException {
         if (location.getPath().startsWith("lang/")) {
             return super.getResourceStream(ResourcePackType.CLIENT_RESOURCES, location);
@@ -146,4 +248,60 @@ public class ModFileResourcePack extends DelegatableResourcePack
     <T extends ResourcePackInfo> T getPackInfo() {
         return (T)this.packInfo;
     }
+
+    private static class ResourceIndex
+    {
+        private static final ResourceIndex EMPTY = new ResourceIndex(Collections.emptyList());
+
+        private final Set<String> files;
+        private final Map<ResourcePackType, Map<String, List<String>>> byNamespace = new EnumMap<>(ResourcePackType.class);
+
+        private ResourceIndex(Collection<String> entries)
+        {
+            final Map<ResourcePackType, Map<String, ImmutableList.Builder<String>>> builders = new EnumMap<>(ResourcePackType.class);
+            for (ResourcePackType type : ResourcePackType.values())
+                builders.put(type, new HashMap<>());
+
+            this.files = ImmutableSet.copyOf(entries);
+            for (String entry : this.files)
+            {
+                for (ResourcePackType type : ResourcePackType.values())
+                {
+                    final String root = type.getDirectoryName() + "/";
+                    if (!entry.startsWith(root))
+                        continue;
+                    final int nsEnd = entry.indexOf('/', root.length());
+                    if (nsEnd <= root.length()) // Files directly in the root, or an empty namespace
+                        continue;
+                    builders.get(type).computeIfAbsent(entry.substring(root.length(), nsEnd), k -> ImmutableList.builder()).add(entry.substring(nsEnd + 1));
+                }
+            }
+            builders.forEach((type, map) -> byNamespace.put(type, ImmutableMap.copyOf(Maps.transformValues(map, ImmutableList.Builder::build))));
+        }
+
+        private boolean covers(String name)
+        {
+            for (ResourcePackType type : ResourcePackType.values())
+                if (name.startsWith(type.getDirectoryName() + "/"))
+                    return true;
+            return false;
+        }
+
+        private static ResourceIndex build(ModFile modFile) throws IOException
+        {
+            final List<String> entries = new ArrayList<>();
+            // Read the zip central directory directly, much cheaper than walking the zip filesystem
+            try (ZipFile zip = new ZipFile(modFile.getFilePath().toFile()))
+            {
+                final Enumeration<? extends ZipEntry> itr = zip.entries();
+                while (itr.hasMoreElements())
+                {
+                    final ZipEntry entry = itr.nextElement();
+                    if (!entry.isDirectory())
+                        entries.add(entry.getName());
+                }
+            }
+            return new ResourceIndex(entries);
+        }
+    }
 }
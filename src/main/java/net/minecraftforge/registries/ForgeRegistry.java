@@ -19,6 +19,7 @@
 
 package net.minecraftforge.registries;
 
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
@@ -26,6 +27,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.function.ObjIntConsumer;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -45,8 +47,11 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
+import com.google.common.hash.Hashing;
 
 import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
 import net.minecraft.nbt.CompoundNBT;
 import net.minecraft.nbt.ListNBT;
 import net.minecraft.nbt.StringNBT;
@@ -73,7 +78,7 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
     private static Marker REGISTRYDUMP = MarkerManager.getMarker("REGISTRYDUMP");
     private static Logger LOGGER = LogManager.getLogger();
     private final RegistryManager stage;
-    private final BiMap<Integer, V> ids = HashBiMap.create();
+    private final IdMap<V> ids = new IdMap<>();
     private final BiMap<ResourceLocation, V> names = HashBiMap.create();
     private final Class<V> superType;
     private final Map<ResourceLocation, ResourceLocation> aliases = Maps.newHashMap();
@@ -99,6 +104,8 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
 
     private V defaultValue = null;
     boolean isFrozen = false;
+    @Nullable
+    private volatile FrozenView<V> frozen = null;
 
     private final ResourceLocation name;
     private final RegistryBuilder<V> builder;
@@ -220,6 +227,9 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
     @Override
     public ResourceLocation getKey(V value)
     {
+        final FrozenView<V> view = this.frozen;
+        if (view != null)
+            return view.getKey(value);
         ResourceLocation ret = this.names.inverse().get(value);
         return ret == null ? this.defaultKey : ret;
     }
@@ -259,10 +269,13 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
 
     public int getID(V value)
     {
-        Integer ret = this.ids.inverse().get(value);
-        if (ret == null && this.defaultValue != null)
-            ret = this.ids.inverse().get(this.defaultValue);
-        return ret == null ? -1 : ret.intValue();
+        final FrozenView<V> view = this.frozen;
+        if (view != null)
+            return view.getID(value);
+        int ret = this.ids.getId(value);
+        if (ret == -1 && this.defaultValue != null)
+            ret = this.ids.getId(this.defaultValue);
+        return ret;
     }
 
     public int getID(ResourceLocation name)
@@ -271,8 +284,7 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
     }
     private int getIDRaw(V value)
     {
-        Integer ret = this.ids.inverse().get(value);
-        return ret == null ? -1 : ret.intValue();
+        return this.ids.getId(value);
     }
     private int getIDRaw(ResourceLocation name)
     {
@@ -281,6 +293,9 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
 
     public V getValue(int id)
     {
+        final FrozenView<V> view = this.frozen;
+        if (view != null)
+            return view.getValue(id);
         V ret = this.ids.get(id);
         return ret == null ? this.defaultValue : ret;
     }
@@ -337,8 +352,8 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
             idToUse = this.getID(oldEntry);
         }
 
-        Integer foundId = this.ids.inverse().get(value); //Is this ever possible to trigger with otherThing being different?
-        if (foundId != null)
+        int foundId = this.ids.getId(value); //Is this ever possible to trigger with otherThing being different?
+        if (foundId != -1)
         {
             V otherThing = this.ids.get(foundId);
             throw new IllegalArgumentException(String.format("The object %s{%x} has been registered twice, using the names %s and %s. (Other object at this id is %s{%x})", value, System.identityHashCode(value), getKey(value), key, otherThing, System.identityHashCode(otherThing)));
@@ -511,7 +526,7 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
         if (from.superType != this.superType)
             throw new IllegalArgumentException("Attempted to copy to incompatible registry: " + name + " " + from.superType + " -> " + this.superType);
 
-        this.isFrozen = false;
+        this.unfreeze();
 
         if (this.clear != null)
             this.clear.onClear(this, stage);
@@ -611,8 +626,8 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
         V value = this.names.remove(key);
         if (value != null)
         {
-            Integer id = this.ids.inverse().remove(value);
-            if (id == null)
+            int id = this.ids.remove(value);
+            if (id == -1)
                 throw new IllegalStateException("Removed a entry that did not have an associated id: " + key + " " + value.toString() + " This should never happen unless hackery!");
 
             LOGGER.trace(REGISTRIES,"Registry {} remove: {} {}", this.superType.getSimpleName(), key, id);
@@ -640,11 +655,14 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
     public void freeze()
     {
         this.isFrozen = true;
+        // Nothing can change while frozen, so publish a copy that readers on any thread can use without racing writers
+        this.frozen = new FrozenView<>(this.ids.copy(), this.names, this.defaultValue, this.defaultKey);
     }
 
     public void unfreeze()
     {
         this.isFrozen = false;
+        this.frozen = null;
     }
 
     RegistryEvent.Register<V> getRegisterEvent(ResourceLocation name)
@@ -765,8 +783,8 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
                 throw new IllegalStateException("ContainsKey for " + key + " was true, but removing by name returned no value.. This should never happen unless hackery!");
 
 
-            Integer oldid = this.ids.inverse().remove(value);
-            if (oldid == null)
+            int oldid = this.ids.remove(value);
+            if (oldid == -1)
                 throw new IllegalStateException("Removed a entry that did not have an associated id: " + key + " " + value.toString() + " This should never happen unless hackery!");
 
             if (oldid != id)
@@ -787,7 +805,7 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
     public Snapshot makeSnapshot()
     {
         Snapshot ret = new Snapshot();
-        this.ids.forEach((id, value) -> ret.ids.put(getKey(value), id));
+        this.ids.forEach((value, id) -> ret.ids.put(getKey(value), id));
         ret.aliases.putAll(this.aliases);
         ret.blocked.addAll(this.blocked);
         ret.dummied.addAll(this.dummies);
@@ -795,6 +813,21 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
         return ret;
     }
 
+    /**
+     * The snapshot sent to clients during login. While the registry stays frozen the same instance is handed out,
+     * so callers must treat it as read only.
+     */
+    Snapshot getSyncSnapshot()
+    {
+        final FrozenView<V> view = this.frozen;
+        if (view == null)
+            return makeSnapshot();
+        Snapshot ret = view.snapshot;
+        if (ret == null)
+            view.snapshot = ret = makeSnapshot();
+        return ret;
+    }
+
     Map<ResourceLocation, String> getOverrideOwners()
     {
         Map<ResourceLocation, String> ret = Maps.newHashMap();
@@ -816,7 +849,8 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
         public final Set<Integer> blocked = Sets.newTreeSet();
         public final Set<ResourceLocation> dummied = Sets.newTreeSet();
         public final Map<ResourceLocation, String> overrides = Maps.newTreeMap();
-        private PacketBuffer binary = null;
+        private volatile PacketBuffer binary = null;
+        private volatile String hash = null;
 
         public CompoundNBT write()
         {
@@ -903,8 +937,10 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
             return ret;
         }
 
-        public synchronized PacketBuffer getPacketData()
+        public PacketBuffer getPacketData()
         {
+            // Snapshots are not modified once sent, racing threads at worst build identical buffers
+            PacketBuffer binary = this.binary;
             if (binary == null) {
                 PacketBuffer pkt = new PacketBuffer(Unpooled.buffer());
 
@@ -932,12 +968,28 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
                 pkt.writeVarInt(this.dummied.size());
                 this.dummied.forEach(pkt::writeResourceLocation);
 
-                this.binary = pkt;
+                this.binary = binary = pkt;
             }
 
             return new PacketBuffer(binary.slice());
         }
 
+        /**
+         * A SHA-256 of {@link #getPacketData()}, as lowercase hex. Equal hashes mean the client would load identical data.
+         */
+        public String getHash()
+        {
+            String hash = this.hash;
+            if (hash == null)
+            {
+                PacketBuffer data = getPacketData();
+                byte[] bytes = new byte[data.readableBytes()];
+                data.readBytes(bytes);
+                this.hash = hash = Hashing.sha256().hashBytes(bytes).toString();
+            }
+            return hash;
+        }
+
         public static Snapshot read(PacketBuffer buff)
         {
             if (buff == null)
@@ -1040,6 +1092,116 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
             LOGGER.debug(REGISTRIES,"There were {} missing mappings that have been ignored", ignored);
     }
 
+    /**
+     * Integer ID to value mapping without boxing. Values are compared by identity, registry entries are unique objects.
+     */
+    private static class IdMap<V>
+    {
+        private Object[] byId = new Object[256];
+        private final Reference2IntOpenHashMap<V> byValue = new Reference2IntOpenHashMap<>();
+
+        IdMap()
+        {
+            this.byValue.defaultReturnValue(-1);
+        }
+
+        @SuppressWarnings("unchecked")
+        @Nullable
+        V get(int id)
+        {
+            return id >= 0 && id < this.byId.length ? (V)this.byId[id] : null;
+        }
+
+        int getId(@Nullable V value)
+        {
+            return this.byValue.getInt(value);
+        }
+
+        void put(int id, V value)
+        {
+            if (id >= this.byId.length)
+                this.byId = Arrays.copyOf(this.byId, Math.max(id + 1, this.byId.length * 2));
+            V old = get(id);
+            if (old != null)
+                this.byValue.removeInt(old);
+            int oldId = this.byValue.put(value, id);
+            if (oldId != -1 && oldId != id)
+                this.byId[oldId] = null;
+            this.byId[id] = value;
+        }
+
+        int remove(V value)
+        {
+            int id = this.byValue.removeInt(value);
+            if (id != -1)
+                this.byId[id] = null;
+            return id;
+        }
+
+        void clear()
+        {
+            Arrays.fill(this.byId, null);
+            this.byValue.clear();
+        }
+
+        @SuppressWarnings("unchecked")
+        void forEach(ObjIntConsumer<V> consumer)
+        {
+            for (int id = 0; id < this.byId.length; id++)
+                if (this.byId[id] != null)
+                    consumer.accept((V)this.byId[id], id);
+        }
+
+        IdMap<V> copy()
+        {
+            IdMap<V> ret = new IdMap<>();
+            ret.byId = this.byId.clone();
+            ret.byValue.putAll(this.byValue);
+            return ret;
+        }
+    }
+
+    /**
+     * The lookups of a frozen registry, never modified after construction. The sync snapshot is only filled in on first use.
+     */
+    private static class FrozenView<V>
+    {
+        private final IdMap<V> ids;
+        private final Reference2ObjectOpenHashMap<V, ResourceLocation> keys;
+        private final V defaultValue;
+        private final int defaultId;
+        private final ResourceLocation defaultKey;
+        private volatile Snapshot snapshot;
+
+        private FrozenView(IdMap<V> ids, Map<ResourceLocation, V> names, @Nullable V defaultValue, @Nullable ResourceLocation defaultKey)
+        {
+            this.ids = ids;
+            this.keys = new Reference2ObjectOpenHashMap<>(names.size());
+            names.forEach((key, value) -> this.keys.put(value, key));
+            this.defaultValue = defaultValue;
+            this.defaultId = defaultValue == null ? -1 : ids.getId(defaultValue);
+            this.defaultKey = defaultKey;
+        }
+
+        int getID(V value)
+        {
+            int ret = this.ids.getId(value);
+            return ret == -1 ? this.defaultId : ret;
+        }
+
+        V getValue(int id)
+        {
+            V ret = this.ids.get(id);
+            return ret == null ? this.defaultValue : ret;
+        }
+
+        ResourceLocation getKey(V value)
+        {
+            ResourceLocation ret = this.keys.get(value);
+            return ret == null ? this.defaultKey : ret;
+        }
+    }
+
     private static class OverrideOwner
     {
         final String owner;
@@ -703,7 +703,7 @@ public class GameData
             ForgeRegistry<T> toRegistry = to.getRegistry(registryName, from);
             toRegistry.sync(registryName, fromRegistry);
             if (freeze)
-                toRegistry.isFrozen = true;
+                toRegistry.freeze();
         }
     }
 
@@ -19,6 +19,9 @@
 
 package net.minecraftforge.registries;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.Collections;
@@ -27,6 +30,7 @@ import java.util.Queue;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
+import com.google.common.base.Throwables;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.ResourceLocationException;
 
@@ -40,6 +44,7 @@ public class ObjectHolderRef implements Consumer<Predicate<ResourceLocation>>
 {
     private static final Logger LOGGER  = LogManager.getLogger();
     private Field field;
+    private MethodHandle setter;
     private ResourceLocation injectedObject;
     private boolean isValid;
     private ForgeRegistry<?> registry;
@@ -101,6 +106,15 @@ public class ObjectHolderRef implements Consumer<Predicate<ResourceLocation>>
         {
             throw new RuntimeException("@ObjectHolder on final field, our transformer did not run? " + field.getDeclaringClass().getName() + "/" + field.getName());
         }
+
+        try
+        {
+            this.setter = MethodHandles.lookup().unreflectSetter(field).asType(MethodType.methodType(void.class, Object.class));
+        }
+        catch (IllegalAccessException e)
+        {
+            throw new RuntimeException(e);
+        }
     }
 
     @SuppressWarnings("unchecked")
@@ -133,6 +147,12 @@ public class ObjectHolderRef implements Consumer<Predicate<ResourceLocation>>
         return isValid;
     }
 
+    @Nullable
+    ResourceLocation getRegistryName()
+    {
+        return registry == null ? null : registry.getRegistryName();
+    }
+
     @Override
     public void accept(Predicate<ResourceLocation> filter)
     {
@@ -156,12 +176,17 @@ public class ObjectHolderRef implements Consumer<Predicate<ResourceLocation>>
         }
         try
         {
-            field.set(null, thing);
+            setter.invokeExact(thing);
         }
-        catch (IllegalArgumentException | ReflectiveOperationException e)
+        catch (ClassCastException e)
         {
             LOGGER.warn("Unable to set {} with value {} ({})", this.field, thing, this.injectedObject, e);
         }
+        catch (Throwable e)
+        {
+            Throwables.throwIfUnchecked(e);
+            throw new RuntimeException(e);
+        }
     }
 
     @Override
@@ -61,7 +61,7 @@ public class ObjectHolderRegistry
      */
     public static void addHandler(Consumer<Predicate<ResourceLocation>> ref)
     {
-        objectHolders.add(ref);
+        getBucket(ref).add(ref);
     }
 
     /**
@@ -75,7 +75,7 @@ public class ObjectHolderRegistry
      */
     public static boolean removeHandler(Consumer<Predicate<ResourceLocation>> ref)
     {
-        return objectHolders.remove(ref);
+        return getBucket(ref).remove(ref);
     }
 
     //==============================================================
@@ -84,6 +84,8 @@ public class ObjectHolderRegistry
 
     private static final Logger LOGGER = LogManager.getLogger();
     private static final Set<Consumer<Predicate<ResourceLocation>>> objectHolders = new HashSet<>();
+    // Our own refs know their registry, so injecting for one registry only has to visit that registry's refs
+    private static final Map<ResourceLocation, Set<Consumer<Predicate<ResourceLocation>>>> objectHoldersByRegistry = Maps.newLinkedHashMap();
     private static final Type OBJECT_HOLDER = Type.getType(ObjectHolder.class);
     private static final Type MOD = Type.getType(Mod.class);
 
@@ -108,7 +110,7 @@ public class ObjectHolderRegistry
 
         annotations.stream().filter(a -> OBJECT_HOLDER.equals(a.getAnnotationType())).filter(a -> a.getTargetType() == ElementType.FIELD)
         .forEach(data -> scanTarget(classModIds, classCache, data.getClassType(), data.getMemberName(), (String)data.getAnnotationData().get("value"), false, false));
-        LOGGER.debug(REGISTRIES,"Found {} ObjectHolder annotations", objectHolders.size());
+        LOGGER.debug(REGISTRIES,"Found {} ObjectHolder annotations", objectHolders.size() + objectHoldersByRegistry.values().stream().mapToInt(Set::size).sum());
     }
 
     private static void scanTarget(Map<Type, String> classModIds, Map<Type, Class<?>> classCache, Type type, @Nullable String annotationTarget, String value, boolean isClass, boolean extractFromValue)
@@ -185,7 +187,24 @@ public class ObjectHolderRegistry
 
     public static void applyObjectHolders(Predicate<ResourceLocation> filter)
     {
+        objectHoldersByRegistry.forEach((registry, holders) ->
+        {
+            if (!filter.test(registry))
+                return;
+            long start = System.nanoTime();
+            holders.forEach(e -> e.accept(filter));
+            LOGGER.debug(REGISTRIES, "Applied {} holders for registry {} in {} ms", holders.size(), registry, String.format(Locale.ENGLISH, "%.3f", (System.nanoTime() - start) / 1_000_000.0));
+        });
+        // Holders registered by others may touch any registry
         objectHolders.forEach(e -> e.accept(filter));
     }
 
+    private static Set<Consumer<Predicate<ResourceLocation>>> getBucket(Consumer<Predicate<ResourceLocation>> ref)
+    {
+        ResourceLocation registry = ref instanceof ObjectHolderRef ? ((ObjectHolderRef)ref).getRegistryName() : null;
+        if (registry == null)
+            return objectHolders;
+        return objectHoldersByRegistry.computeIfAbsent(registry, k -> new HashSet<>());
+    }
+
 }
@@ -21,11 +21,14 @@ package net.minecraftforge.registries;
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import javax.annotation.Nullable;
+
 import com.google.common.collect.BiMap;
 import com.google.common.collect.HashBiMap;
 import com.google.common.collect.Maps;
@@ -185,11 +188,38 @@ public class RegistryManager
 
     public static List<Pair<String, FMLHandshakeMessages.S2CRegistry>> generateRegistryPackets(boolean isLocal)
     {
-        return !isLocal ? ACTIVE.takeSnapshot(false).entrySet().stream().
-                map(e->Pair.of("Registry " + e.getKey(), new FMLHandshakeMessages.S2CRegistry(e.getKey(), e.getValue()))).
+        return !isLocal ? getRegistryNamesForSyncToClient().stream().
+                map(name->Pair.of(getRegistryPacketContext(name), new FMLHandshakeMessages.S2CRegistry(name, getSyncSnapshot(name)))).
                 collect(Collectors.toList()) : Collections.emptyList();
     }
 
+    /**
+     * The login payload context of the registry packet for the given registry, used by the handshake to find it again.
+     */
+    public static String getRegistryPacketContext(ResourceLocation name)
+    {
+        return "Registry " + name;
+    }
+
+    /**
+     * The network snapshot of an active registry. The snapshot is shared while the registry stays frozen and must not be modified.
+     *
+     * @return The snapshot, or null if there is no such registry
+     */
+    @Nullable
+    public static Snapshot getSyncSnapshot(ResourceLocation name)
+    {
+        ForgeRegistry<?> reg = ACTIVE.getRegistry(name);
+        return reg == null ? null : reg.getSyncSnapshot();
+    }
+
+    public static Map<ResourceLocation, String> getRegistryHashesForSyncToClient()
+    {
+        Map<ResourceLocation, String> ret = new LinkedHashMap<>();
+        getRegistryNamesForSyncToClient().forEach(name -> ret.put(name, getSyncSnapshot(name).getHash()));
+        return ret;
+    }
+
     public static List<ResourceLocation> getRegistryNamesForSyncToClient()
     {
         return ACTIVE.registries.keySet().stream().
@@ -19,66 +19,137 @@
 
 package net.minecraftforge.server.command;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayDeque;
+import java.util.Comparator;
 import java.util.Queue;
+import java.util.Set;
+import java.util.regex.Pattern;
 
+import com.google.common.collect.Sets;
+
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
 import net.minecraft.command.CommandSource;
+import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
 import net.minecraft.util.text.TextComponent;
 import net.minecraft.util.text.TranslationTextComponent;
+import net.minecraft.world.server.ServerChunkProvider;
 import net.minecraft.world.server.ServerWorld;
-import net.minecraft.world.chunk.ChunkStatus;
-import net.minecraft.world.chunk.IChunk;
+import net.minecraft.world.server.TicketType;
 import net.minecraft.world.dimension.DimensionType;
 import net.minecraftforge.common.DimensionManager;
+import net.minecraftforge.common.ForgeConfig;
+import net.minecraftforge.common.WorldWorkerManager;
 import net.minecraftforge.common.WorldWorkerManager.IWorker;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
+/**
+ * Generates chunks in a spiral around a starting chunk.
+ *
+ * Rather than generating one chunk at a time on the server thread, the worker places a ticket on a window of
+ * chunks and lets the chunk provider generate them in the background, releasing each ticket once its chunk is
+ * fully generated. New chunks are only requested while the server keeps up, see {@link ForgeConfig.Server#chunkGenMaxTickTime}
+ * and {@link ForgeConfig.Server#chunkGenMaxPendingSaves}. Progress is periodically written to the dimension folder, so
+ * an interrupted job resumes when the server is next started. Each job has its own checkpoint, keyed by its center
+ * and chunk count, so several jobs in one dimension resume independently.
+ */
 public class ChunkGenWorker implements IWorker
 {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final TicketType<ChunkPos> PREGEN = TicketType.create("forge_pregen", Comparator.comparingLong(ChunkPos::asLong));
+    private static final String CHECKPOINT_DIR = "forge_chunkgen";
+    private static final Pattern CHECKPOINT_NAME = Pattern.compile("(-?\\d+)_(-?\\d+)_(\\d+)\\.dat");
+    private static final long CHECKPOINT_INTERVAL = 30 * 1000;
+    private static final long PENDING_SAVE_TIMEOUT = 60 * 1000;
+    private static final Set<ChunkGenWorker> ACTIVE = Sets.newConcurrentHashSet();
+
     private final CommandSource listener;
     protected final BlockPos start;
     protected final int total;
     private final DimensionType dim;
-    private final Queue<BlockPos> queue;
     private final int notificationFrequency;
     private int lastNotification = 0;
     private long lastNotifcationTime = 0;
+    private long lastCheckpointTime = 0;
     private int genned = 0;
     private Boolean keepingLoaded;
 
+    /** Spiral index of the next chunk to request */
+    private int next;
+    /** Every spiral index below this has been generated */
+    private int completed;
+    /** Chunks in the window [completed, next) that are still waiting on the chunk provider, indexed by spiral index modulo the window size */
+    private final long[] inFlight;
+    private final boolean[] inFlightDone;
+    private int inFlightCount;
+    /** Chunks whose ticket has been released but which have not been unloaded, and thus saved, yet */
+    private final LongArrayFIFOQueue pendingSaves = new LongArrayFIFOQueue();
+    private final LongArrayFIFOQueue pendingSaveTimes = new LongArrayFIFOQueue();
+    private boolean aborted;
+
     public ChunkGenWorker(CommandSource listener, BlockPos start, int total, DimensionType dim, int interval)
     {
         this.listener = listener;
         this.start = start;
         this.total = total;
         this.dim  = dim;
-        this.queue = buildQueue();
         this.notificationFrequency = interval != -1 ? interval : Math.max(total / 20, 100); //Every 5% or every 100, whichever is more.
         this.lastNotifcationTime = System.currentTimeMillis(); //We also notify at least once every 60 seconds, to show we haven't froze.
+        this.lastCheckpointTime = this.lastNotifcationTime;
+        int window = ForgeConfig.SERVER.chunkGenMaxInFlight.get();
+        this.inFlight = new long[window];
+        this.inFlightDone = new boolean[window];
     }
 
-    protected Queue<BlockPos> buildQueue()
+    /**
+     * Returns the chunk at the given index of a spiral around {@link #start}. The spiral starts on the right side
+     * of each ring, then goes down, left, up and back to the right, matching the order generation has always used.
+     */
+    protected ChunkPos getSpiralPos(int index)
     {
-        Queue<BlockPos> ret = new ArrayDeque<BlockPos>();
-        ret.add(start);
+        if (index == 0)
+            return new ChunkPos(start.getX(), start.getZ());
 
-        //This *should* spiral outwards, starting on right side, down, left, up, right, but hey we'll see!
-        int radius = 1;
-        while (ret.size() < total)
-        {
-            for (int q = -radius + 1; q <= radius && ret.size() < total; q++)
-                ret.add(start.add(radius, 0, q));
-
-            for (int q = radius - 1; q >= -radius && ret.size() < total; q--)
-                ret.add(start.add(q, 0, radius));
-
-            for (int q = radius - 1; q >= -radius && ret.size() < total; q--)
-                ret.add(start.add(-radius, 0, q));
+        int radius = (int)Math.ceil((Math.sqrt(index + 1) - 1) / 2);
+        while ((2 * radius + 1) * (2 * radius + 1) <= index) radius++; // Correct for floating point error
+        while (radius > 1 && (2 * radius - 1) * (2 * radius - 1) > index) radius--;
 
-            for (int q = -radius + 1; q <= radius && ret.size() < total; q++)
-                ret.add(start.add(q, 0, -radius));
+        int offset = index - (2 * radius - 1) * (2 * radius - 1);
+        int side = offset / (2 * radius);
+        int q = offset % (2 * radius);
+        int x, z;
+        switch (side)
+        {
+            case 0:  x = radius;         z = -radius + 1 + q; break;
+            case 1:  x = radius - 1 - q; z = radius;          break;
+            case 2:  x = -radius;        z = radius - 1 - q;  break;
+            default: x = -radius + 1 + q; z = -radius;        break;
+        }
+        return new ChunkPos(start.getX() + x, start.getZ() + z);
+    }
 
-            radius++;
+    /**
+     * @deprecated Chunks are now requested by spiral index from {@link #getSpiralPos(int)}, overriding this has no effect.
+     * Returns the same order, as block positions holding the chunk coordinates.
+     */
+    @Deprecated
+    protected Queue<BlockPos> buildQueue()
+    {
+        Queue<BlockPos> ret = new ArrayDeque<BlockPos>(total);
+        for (int x = 0; x < total; x++)
+        {
+            ChunkPos pos = getSpiralPos(x);
+            ret.add(new BlockPos(pos.x, start.getY(), pos.z));
         }
         return ret;
     }
@@ -88,10 +159,16 @@ public class ChunkGenWorker implements IWorker
         return new TranslationTextComponent("commands.forge.gen.start", total, start.getX(), start.getZ(), dim);
     }
 
+    @Override
+    public String getName()
+    {
+        return "Chunk generation around " + start.getX() + ", " + start.getZ() + " in " + DimensionType.getKey(dim);
+    }
+
     @Override
     public boolean hasWork()
     {
-        return queue.size() > 0;
+        return !aborted && completed < total;
     }
 
     @Override
@@ -104,63 +181,227 @@ public class ChunkGenWorker implements IWorker
             if (world == null)
             {
                 listener.sendFeedback(new TranslationTextComponent("commands.forge.gen.dim_fail", dim), true);
-                queue.clear();
+                aborted = true;
+                ACTIVE.remove(this);
                 return false;
             }
         }
+        ACTIVE.add(this);
+
+        // While we work we don't want to cause world load spam so pause unloading the world.
+        if (keepingLoaded == null)
+        {
+            keepingLoaded = DimensionManager.keepLoaded(dim, true);
+        }
+
+        ServerChunkProvider provider = world.getChunkProvider();
+        long now = System.currentTimeMillis();
+
+        collectFinished(provider);
+        drainPendingSaves(provider, now);
 
-        /* TODO: Check how many things are pending save, and slow down world gen if to many
-        AnvilChunkLoader loader = world.getChunkProvider().chunkLoader instanceof AnvilChunkLoader ? (AnvilChunkLoader)world.getChunkProvider().chunkLoader : null;
-        if (loader != null && loader.getPendingSaveCount() > 100)
+        if (lastCheckpointTime < now - CHECKPOINT_INTERVAL)
         {
+            writeCheckpoint(world);
+            lastCheckpointTime = now;
+        }
 
-            if (lastNotifcationTime < System.currentTimeMillis() - 10*1000)
+        if (completed >= total)
+        {
+            listener.sendFeedback(new TranslationTextComponent("commands.forge.gen.complete", genned, total, DimensionType.getKey(dim)), true);
+            deleteCheckpoint(world);
+            ACTIVE.remove(this);
+            if (keepingLoaded != null && !keepingLoaded)
             {
-                listener.sendFeedback(new TranslationTextComponent("commands.forge.gen.progress", total - queue.size(), total), true);
-                lastNotifcationTime = System.currentTimeMillis();
+                DimensionManager.keepLoaded(dim, false);
             }
             return false;
         }
-        */
 
-        BlockPos next = queue.poll();
+        if (isThrottled(now))
+        {
+            if (lastNotifcationTime < now - 10*1000)
+            {
+                listener.sendFeedback(new TranslationTextComponent("commands.forge.gen.progress", completed, total), true);
+                lastNotifcationTime = now;
+            }
+            return false;
+        }
 
-        if (next != null)
+        while (next < total && next - completed < inFlight.length)
         {
-            // While we work we don't want to cause world load spam so pause unloading the world.
-            if (keepingLoaded == null)
+            ChunkPos pos = getSpiralPos(next);
+            int slot = next % inFlight.length;
+            inFlight[slot] = pos.asLong();
+            if (provider.getChunkNow(pos.x, pos.z) != null)
             {
-                keepingLoaded = DimensionManager.keepLoaded(dim, true);
+                inFlightDone[slot] = true; // Already loaded, nothing to generate
             }
+            else
+            {
+                inFlightDone[slot] = false;
+                provider.registerTicket(PREGEN, pos, 0, pos);
+                inFlightCount++;
+            }
+            next++;
+        }
+        advanceCompleted();
+
+        if (lastNotification >= notificationFrequency || lastNotifcationTime < now - 60*1000)
+        {
+            listener.sendFeedback(new TranslationTextComponent("commands.forge.gen.progress", completed, total), true);
+            lastNotification = 0;
+            lastNotifcationTime = now;
+        }
+
+        // Generation happens in the background, there is nothing more to do until the next tick.
+        return false;
+    }
 
-            if (++lastNotification >= notificationFrequency || lastNotifcationTime < System.currentTimeMillis() - 60*1000)
+    private boolean isThrottled(long now)
+    {
+        if (pendingSaves.size() > ForgeConfig.SERVER.chunkGenMaxPendingSaves.get())
+            return true;
+        long[] tickTimes = listener.getServer().tickTimeArray;
+        long sum = 0;
+        for (long time : tickTimes)
+            sum += time;
+        return sum / tickTimes.length * 1.0E-6D > ForgeConfig.SERVER.chunkGenMaxTickTime.get();
+    }
+
+    private void collectFinished(ServerChunkProvider provider)
+    {
+        if (inFlightCount == 0)
+            return;
+        for (int idx = completed; idx < next; idx++)
+        {
+            int slot = idx % inFlight.length;
+            if (inFlightDone[slot])
+                continue;
+            long packed = inFlight[slot];
+            int x = ChunkPos.getX(packed);
+            int z = ChunkPos.getZ(packed);
+            if (provider.getChunkNow(x, z) != null)
             {
-                listener.sendFeedback(new TranslationTextComponent("commands.forge.gen.progress", total - queue.size(), total), true);
-                lastNotification = 0;
-                lastNotifcationTime = System.currentTimeMillis();
+                ChunkPos pos = new ChunkPos(x, z);
+                provider.releaseTicket(PREGEN, pos, 0, pos);
+                inFlightDone[slot] = true;
+                inFlightCount--;
+                genned++; //There isn't a way to check if the chunk is actually created just if it was loaded
+                lastNotification++;
+                pendingSaves.enqueue(packed);
+                pendingSaveTimes.enqueue(System.currentTimeMillis());
             }
+        }
+        advanceCompleted();
+    }
 
-            int x = next.getX();
-            int z = next.getZ();
+    private void advanceCompleted()
+    {
+        while (completed < next && inFlightDone[completed % inFlight.length])
+            completed++;
+    }
 
-            if (!world.chunkExists(x, z)) { //Chunk is unloaded
-                IChunk chunk = world.getChunk(x, z, ChunkStatus.EMPTY, true);
-                if (!chunk.getStatus().isAtLeast(ChunkStatus.FULL)) {
-                    chunk = world.getChunk(x, z, ChunkStatus.FULL);
-                    genned++; //There isn't a way to check if the chunk is actually created just if it was loaded
-                }
+    private void drainPendingSaves(ServerChunkProvider provider, long now)
+    {
+        while (!pendingSaves.isEmpty())
+        {
+            long packed = pendingSaves.firstLong();
+            // Once a chunk is unloaded its save has been handed to the IO worker. Chunks kept loaded by something else, like a nearby player, are given up on eventually.
+            if (provider.getChunkNow(ChunkPos.getX(packed), ChunkPos.getZ(packed)) != null && pendingSaveTimes.firstLong() > now - PENDING_SAVE_TIMEOUT)
+                break;
+            pendingSaves.dequeueLong();
+            pendingSaveTimes.dequeueLong();
+        }
+    }
+
+    private static File getCheckpointDir(DimensionType dim, File worldDir)
+    {
+        return new File(dim.getDirectory(worldDir), CHECKPOINT_DIR);
+    }
+
+    private File getCheckpointFile(ServerWorld world)
+    {
+        return new File(getCheckpointDir(dim, world.getSaveHandler().getWorldDirectory()), start.getX() + "_" + start.getZ() + "_" + total + ".dat");
+    }
+
+    private void writeCheckpoint(ServerWorld world)
+    {
+        CompoundNBT nbt = new CompoundNBT();
+        nbt.putInt("x", start.getX());
+        nbt.putInt("z", start.getZ());
+        nbt.putInt("total", total);
+        nbt.putInt("completed", completed);
+        nbt.putInt("genned", genned);
+        File file = getCheckpointFile(world);
+        File tmp = new File(file.getPath() + ".tmp");
+        try
+        {
+            if (!file.getParentFile().isDirectory() && !file.getParentFile().mkdirs())
+                throw new IOException("Could not create directory " + file.getParentFile());
+            try (OutputStream out = new FileOutputStream(tmp))
+            {
+                CompressedStreamTools.writeCompressed(nbt, out);
             }
+            if (file.exists() && !file.delete() || !tmp.renameTo(file))
+                LOGGER.warn("Failed to write chunk generation checkpoint {}", file);
         }
+        catch (IOException e)
+        {
+            LOGGER.warn("Failed to write chunk generation checkpoint {}", file, e);
+        }
+    }
 
-        if (queue.size() == 0)
+    private void deleteCheckpoint(ServerWorld world)
+    {
+        File file = getCheckpointFile(world);
+        if (file.exists() && !file.delete())
+            LOGGER.warn("Failed to delete chunk generation checkpoint {}", file);
+    }
+
+    /**
+     * Writes a checkpoint for every running job, called when the server stops.
+     */
+    public static void checkpointAll(MinecraftServer server)
+    {
+        for (ChunkGenWorker worker : ACTIVE)
         {
-            listener.sendFeedback(new TranslationTextComponent("commands.forge.gen.complete", genned, total, DimensionType.getKey(dim)), true);
-            if (keepingLoaded != null && !keepingLoaded)
+            ServerWorld world = DimensionManager.getWorld(server, worker.dim, false, false);
+            if (world != null)
+                worker.writeCheckpoint(world);
+        }
+        ACTIVE.clear();
+    }
+
+    /**
+     * Restarts any job that was interrupted by the server stopping.
+     */
+    public static void resumeAll(MinecraftServer server)
+    {
+        ServerWorld overworld = server.getWorld(DimensionType.OVERWORLD);
+        for (DimensionType dim : DimensionType.getAll())
+        {
+            File[] files = getCheckpointDir(dim, overworld.getSaveHandler().getWorldDirectory()).listFiles();
+            if (files == null)
+                continue;
+            for (File file : files)
             {
-                DimensionManager.keepLoaded(dim, false);
+                if (!CHECKPOINT_NAME.matcher(file.getName()).matches())
+                    continue;
+                try (InputStream in = new FileInputStream(file))
+                {
+                    CompoundNBT nbt = CompressedStreamTools.readCompressed(in);
+                    ChunkGenWorker worker = new ChunkGenWorker(server.getCommandSource(), new BlockPos(nbt.getInt("x"), 0, nbt.getInt("z")), nbt.getInt("total"), dim, -1);
+                    worker.completed = worker.next = nbt.getInt("completed");
+                    worker.genned = nbt.getInt("genned");
+                    LOGGER.info("Resuming generation of {} chunks around {}, {} in dimension {} at chunk {}", worker.total, worker.start.getX(), worker.start.getZ(), DimensionType.getKey(dim), worker.completed);
+                    WorldWorkerManager.addWorker(worker);
+                }
+                catch (IOException e)
+                {
+                    LOGGER.warn("Failed to read chunk generation checkpoint {}", file, e);
+                }
             }
-            return false;
         }
-        return true;
     }
 }
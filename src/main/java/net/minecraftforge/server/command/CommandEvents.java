@@ -0,0 +1,68 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2019.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.server.command;
+
+import java.text.DecimalFormat;
+import java.util.List;
+
+import com.mojang.brigadier.builder.ArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+import net.minecraft.command.CommandSource;
+import net.minecraft.command.Commands;
+import net.minecraft.util.text.TranslationTextComponent;
+import net.minecraftforge.event.EventPostTracker;
+
+class CommandEvents
+{
+    private static final DecimalFormat TIME_FORMATTER = new DecimalFormat("########0.000");
+    private static final int MAX_ENTRIES = 20;
+
+    static ArgumentBuilder<CommandSource, ?> register()
+    {
+        return Commands.literal("events")
+            .requires(cs->cs.hasPermissionLevel(2)) //permission
+            .executes(CommandEvents::dump)
+            .then(Commands.literal("reset")
+                .executes(ctx -> {
+                    EventPostTracker.reset();
+                    ctx.getSource().sendFeedback(new TranslationTextComponent("commands.forge.events.reset"), true);
+                    return 0;
+                })
+            );
+    }
+
+    private static int dump(CommandContext<CommandSource> ctx)
+    {
+        List<EventPostTracker.Stats> stats = EventPostTracker.getStats();
+        if (stats.isEmpty())
+        {
+            ctx.getSource().sendFeedback(new TranslationTextComponent("commands.forge.events.none"), false);
+            return 0;
+        }
+        for (EventPostTracker.Stats stat : stats.subList(0, Math.min(MAX_ENTRIES, stats.size())))
+        {
+            double totalMs = stat.getTotalTime() * 1.0E-6D;
+            double meanUs = stat.getPosts() == 0 ? 0 : stat.getTotalTime() * 1.0E-3D / stat.getPosts();
+            ctx.getSource().sendFeedback(new TranslationTextComponent("commands.forge.events.entry", stat.getType().getName(), stat.getPosts(),
+                    stat.getSkipped(), TIME_FORMATTER.format(totalMs), TIME_FORMATTER.format(meanUs)), false);
+        }
+        return stats.size();
+    }
+}
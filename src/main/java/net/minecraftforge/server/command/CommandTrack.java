@@ -23,22 +23,29 @@ import com.mojang.brigadier.arguments.IntegerArgumentType;
 import com.mojang.brigadier.builder.ArgumentBuilder;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
 
+import org.apache.commons.lang3.tuple.Triple;
+
 import net.minecraft.command.CommandException;
 import net.minecraft.command.CommandSource;
 import net.minecraft.command.Commands;
 import net.minecraft.entity.Entity;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
 import net.minecraft.util.text.ITextComponent;
 import net.minecraft.util.text.TranslationTextComponent;
 import net.minecraft.world.dimension.DimensionType;
+import net.minecraftforge.registries.IForgeRegistryEntry;
 import net.minecraftforge.server.timings.ForgeTimings;
 import net.minecraftforge.server.timings.TimeTracker;
+import net.minecraftforge.server.timings.TimingHistogram;
 
 class CommandTrack
 {
@@ -126,6 +133,60 @@ class CommandTrack
             return list;
         }
 
+        /**
+         * Formats a duration given in nanoseconds for display
+         */
+        private static String formatTime(double nanos)
+        {
+            double micros = nanos / 1000;
+            return micros >= 1000 ? TIME_FORMAT.format(micros / 1000) + "ms" : TIME_FORMAT.format(micros) + "\u03bcs";
+        }
+
+        private static ITextComponent formatHistogram(String key, TimingHistogram histogram, Object... prefix)
+        {
+            Object[] args = Arrays.copyOf(prefix, prefix.length + 5);
+            args[prefix.length] = histogram.getCount();
+            args[prefix.length + 1] = formatTime(histogram.getPercentile(50));
+            args[prefix.length + 2] = formatTime(histogram.getPercentile(95));
+            args[prefix.length + 3] = formatTime(histogram.getPercentile(99));
+            args[prefix.length + 4] = formatTime(histogram.getMax());
+            return new TranslationTextComponent(key, args);
+        }
+
+        private static <T> int executeTypes(CommandSource source, TimeTracker<T> tracker)
+        {
+            List<Map.Entry<Object, TimingHistogram>> types = new ArrayList<>(tracker.getTypeTimingData().entrySet());
+            if (types.isEmpty())
+            {
+                source.sendFeedback(new TranslationTextComponent("commands.forge.tracking.no_data"), true);
+                return 0;
+            }
+            types.sort(Comparator.comparingLong((Map.Entry<Object, TimingHistogram> e) -> e.getValue().getTotal()).reversed());
+            types.stream().limit(10).forEach(e -> {
+                Object type = e.getKey();
+                Object name = type instanceof IForgeRegistryEntry ? ((IForgeRegistryEntry<?>)type).getRegistryName() : type;
+                source.sendFeedback(formatHistogram("commands.forge.tracking.timing_type_entry", e.getValue(), name), true);
+            });
+            return 0;
+        }
+
+        private static <T> int executeChunks(CommandSource source, TimeTracker<T> tracker)
+        {
+            List<Triple<DimensionType, Long, TimingHistogram>> chunks = new ArrayList<>();
+            tracker.getChunkTimingData().forEach((dim, map) -> map.forEach((pos, histogram) -> chunks.add(Triple.of(dim, pos, histogram))));
+            if (chunks.isEmpty())
+            {
+                source.sendFeedback(new TranslationTextComponent("commands.forge.tracking.no_data"), true);
+                return 0;
+            }
+            chunks.sort(Comparator.comparingLong((Triple<DimensionType, Long, TimingHistogram> e) -> e.getRight().getTotal()).reversed());
+            chunks.stream().limit(10).forEach(e -> {
+                long pos = e.getMiddle();
+                source.sendFeedback(formatHistogram("commands.forge.tracking.timing_chunk_entry", e.getRight(), DimensionType.getKey(e.getLeft()), ChunkPos.getX(pos), ChunkPos.getZ(pos)), true);
+            });
+            return 0;
+        }
+
         private static <T> int execute(CommandSource source, TimeTracker<T> tracker, Function<ForgeTimings<T>, ITextComponent> toString) throws CommandException
         {
             List<ForgeTimings<T>> timingsList = getSortedTimings(tracker);
@@ -155,12 +216,12 @@ class CommandTrack
                         return new TranslationTextComponent("commands.forge.tracking.invalid");
 
                     BlockPos pos = entity.getPosition();
-                    double averageTimings = data.getAverageTimings();
-                    String tickTime = (averageTimings > 1000 ? TIME_FORMAT.format(averageTimings / 1000) : TIME_FORMAT.format(averageTimings)) + (averageTimings < 1000 ? "\u03bcs" : "ms");
+                    String tickTime = TrackResults.formatTime(data.getAverageTimings());
 
                     return new TranslationTextComponent("commands.forge.tracking.timing_entry", entity.getType().getRegistryName(), DimensionType.getKey(entity.world.dimension.getType()), pos.getX(), pos.getY(), pos.getZ(), tickTime);
-                })
-            );
+                }))
+                .then(Commands.literal("types").executes(ctx -> TrackResults.executeTypes(ctx.getSource(), TimeTracker.ENTITY_UPDATE)))
+                .then(Commands.literal("chunks").executes(ctx -> TrackResults.executeChunks(ctx.getSource(), TimeTracker.ENTITY_UPDATE)));
         }
     }
 
@@ -176,11 +237,11 @@ class CommandTrack
 
                     BlockPos pos = te.getPos();
 
-                    double averageTimings = data.getAverageTimings();
-                    String tickTime = (averageTimings > 1000 ? TIME_FORMAT.format(averageTimings / 1000) : TIME_FORMAT.format(averageTimings)) + (averageTimings < 1000 ? "\u03bcs" : "ms");
+                    String tickTime = TrackResults.formatTime(data.getAverageTimings());
                     return new TranslationTextComponent("commands.forge.tracking.timing_entry", te.getType().getRegistryName(), DimensionType.getKey(te.getWorld().dimension.getType()), pos.getX(), pos.getY(), pos.getZ(), tickTime);
-                })
-            );
+                }))
+                .then(Commands.literal("types").executes(ctx -> TrackResults.executeTypes(ctx.getSource(), TimeTracker.TILE_ENTITY_UPDATE)))
+                .then(Commands.literal("chunks").executes(ctx -> TrackResults.executeChunks(ctx.getSource(), TimeTracker.TILE_ENTITY_UPDATE)));
         }
     }
 }
@@ -36,6 +36,8 @@ public class ForgeCommand
             .then(CommandDimensions.register())
             .then(CommandSetDimension.register())
             .then(CommandModList.register())
+            .then(CommandWorkers.register())
+            .then(CommandEvents.register())
         );
     }
 }
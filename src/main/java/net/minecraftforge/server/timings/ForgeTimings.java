@@ -20,7 +20,6 @@
 package net.minecraftforge.server.timings;
 
 import java.lang.ref.WeakReference;
-import java.util.Arrays;
 
 /**
  * ForgeTimings aggregates timings data collected by {@link TimeTracker} for an Object
@@ -33,12 +32,33 @@ public class ForgeTimings<T>
 
     private WeakReference<T> object;
 
-    private int[] rawTimingData;
+    private long count;
+    private long total;
+    private long max;
 
     public ForgeTimings(T object, int[] rawTimingData)
     {
         this.object = new WeakReference<T>(object);
-        this.rawTimingData = rawTimingData;
+        this.count = rawTimingData.length;
+        for (int data : rawTimingData)
+        {
+            this.total += data;
+            this.max = Math.max(this.max, data);
+        }
+    }
+
+    /**
+     * @param object The object the timings are for
+     * @param count  The number of recorded updates
+     * @param total  The sum of all recorded update times in nanoseconds
+     * @param max    The longest recorded update time in nanoseconds
+     */
+    public ForgeTimings(T object, long count, long total, long max)
+    {
+        this.object = new WeakReference<T>(object);
+        this.count = count;
+        this.total = total;
+        this.max = max;
     }
 
     /**
@@ -59,13 +79,22 @@ public class ForgeTimings<T>
      */
     public double getAverageTimings()
     {
-        double sum = 0.0;
+        return count == 0 ? 0.0 : (double) total / count;
+    }
 
-        for (int data : rawTimingData)
-        {
-            sum += data;
-        }
+    /**
+     * @return The longest recorded update time
+     */
+    public long getMaxTimings()
+    {
+        return max;
+    }
 
-        return sum / rawTimingData.length;
+    /**
+     * @return The number of recorded updates
+     */
+    public long getCount()
+    {
+        return count;
     }
 }
@@ -19,20 +19,31 @@
 
 package net.minecraftforge.server.timings;
 
-import java.lang.ref.WeakReference;
-import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.MapMaker;
 
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import net.minecraft.entity.Entity;
 import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+import net.minecraft.world.dimension.DimensionType;
 
 /**
  * A class to assist in the collection of data to measure the update times of ticking objects {currently Tile Entities and Entities}
  *
+ * Besides per object totals, samples are aggregated into {@link TimingHistogram}s per object type and per chunk.
+ * Once an object, type or chunk has been seen, recording further samples for it does not allocate.
+ *
  * @param <T>
  */
 public class TimeTracker<T>
@@ -41,19 +52,49 @@ public class TimeTracker<T>
     /**
      * A tracker for timing tile entity update
      */
-    public static final TimeTracker<TileEntity> TILE_ENTITY_UPDATE = new TimeTracker<>();
+    public static final TimeTracker<TileEntity> TILE_ENTITY_UPDATE = new TimeTracker<>(TileEntity::getType, TileEntity::getWorld, te -> ChunkPos.asLong(te.getPos().getX() >> 4, te.getPos().getZ() >> 4));
     /**
      * A tracker for timing entity updates
      */
-    public static final TimeTracker<Entity> ENTITY_UPDATE = new TimeTracker<>();
+    public static final TimeTracker<Entity> ENTITY_UPDATE = new TimeTracker<>(Entity::getType, e -> e.world, e -> ChunkPos.asLong(e.chunkCoordX, e.chunkCoordZ));
+
+    private static final int COUNT = 0;
+    private static final int TOTAL = 1;
+    private static final int MAX = 2;
+
+    private final Function<T, ?> typeGetter;
+    private final Function<T, World> worldGetter;
+    private final ToLongFunction<T> chunkGetter;
 
     private boolean enabled;
     private int trackingDuration;
-    private Map<T, int[]> timings = new MapMaker().weakKeys().makeMap();
-    private WeakReference<T> currentlyTracking;
+    private Map<T, long[]> timings = new MapMaker().weakKeys().makeMap();
+    private final Map<Object, TimingHistogram> typeTimings = new IdentityHashMap<>();
+    private final Map<DimensionType, Long2ObjectMap<TimingHistogram>> chunkTimings = new HashMap<>();
+    private T currentlyTracking;
     private long trackTime;
     private long timing;
 
+    /**
+     * Creates a tracker that only records per object timings
+     */
+    public TimeTracker()
+    {
+        this(null, null, null);
+    }
+
+    /**
+     * @param typeGetter  Returns the type of a tracked object, used to group timings by type. May be null.
+     * @param worldGetter Returns the world of a tracked object, used with chunkGetter to group timings by chunk. May be null.
+     * @param chunkGetter Returns the {@link ChunkPos#asLong(int, int) packed chunk position} of a tracked object. May be null.
+     */
+    public TimeTracker(Function<T, ?> typeGetter, Function<T, World> worldGetter, ToLongFunction<T> chunkGetter)
+    {
+        this.typeGetter = typeGetter;
+        this.worldGetter = worldGetter;
+        this.chunkGetter = chunkGetter;
+    }
+
     /**
      * Returns the timings data recorded by the tracker
      *
@@ -63,13 +104,36 @@ public class TimeTracker<T>
     {
         ImmutableList.Builder<ForgeTimings<T>> builder = ImmutableList.builder();
 
-        for (Map.Entry<T, int[]> entry : timings.entrySet())
+        for (Map.Entry<T, long[]> entry : timings.entrySet())
         {
-            builder.add(new ForgeTimings<>(entry.getKey(), Arrays.copyOfRange(entry.getValue(), 0, 99)));
+            long[] data = entry.getValue();
+            builder.add(new ForgeTimings<>(entry.getKey(), data[COUNT], data[TOTAL], data[MAX]));
         }
         return builder.build();
     }
 
+    /**
+     * Returns the timings recorded by the tracker, grouped by object type
+     *
+     * @return An immutable map of object type to the histogram of update times of all objects of that type
+     */
+    public ImmutableMap<Object, TimingHistogram> getTypeTimingData()
+    {
+        return ImmutableMap.copyOf(typeTimings);
+    }
+
+    /**
+     * Returns the timings recorded by the tracker, grouped by dimension and chunk
+     *
+     * @return An immutable map of dimension to {@link ChunkPos#asLong(int, int) packed chunk position} to the histogram of update times in that chunk
+     */
+    public ImmutableMap<DimensionType, Map<Long, TimingHistogram>> getChunkTimingData()
+    {
+        ImmutableMap.Builder<DimensionType, Map<Long, TimingHistogram>> builder = ImmutableMap.builder();
+        chunkTimings.forEach((dim, chunks) -> builder.put(dim, ImmutableMap.copyOf(chunks)));
+        return builder.build();
+    }
+
     /**
      * Resets the tracker (clears timings and stops any in-progress timings)
      */
@@ -77,7 +141,10 @@ public class TimeTracker<T>
     {
         enabled = false;
         trackTime = 0;
+        currentlyTracking = null;
         timings.clear();
+        typeTimings.clear();
+        chunkTimings.clear();
     }
 
     /**
@@ -117,14 +184,47 @@ public class TimeTracker<T>
 
     private void trackEnd(T object, long nanoTime)
     {
-        if (currentlyTracking == null || currentlyTracking.get() != object)
+        if (currentlyTracking == null || currentlyTracking != object)
         {
             currentlyTracking = null;
             return;
         }
-        int[] timings = this.timings.computeIfAbsent(object, k -> new int[101]);
-        int idx = timings[100] = (timings[100] + 1) % 100;
-        timings[idx] = (int) (nanoTime - timing);
+        currentlyTracking = null;
+        long elapsed = nanoTime - timing;
+
+        long[] data = this.timings.get(object);
+        if (data == null)
+        {
+            data = new long[3];
+            this.timings.put(object, data);
+        }
+        data[COUNT]++;
+        data[TOTAL] += elapsed;
+        if (elapsed > data[MAX])
+            data[MAX] = elapsed;
+
+        if (typeGetter != null)
+        {
+            Object type = typeGetter.apply(object);
+            if (type != null)
+                typeTimings.computeIfAbsent(type, k -> new TimingHistogram()).record(elapsed);
+        }
+        if (worldGetter != null && chunkGetter != null)
+        {
+            World world = worldGetter.apply(object);
+            if (world != null)
+            {
+                Long2ObjectMap<TimingHistogram> chunks = chunkTimings.computeIfAbsent(world.getDimension().getType(), k -> new Long2ObjectOpenHashMap<>());
+                long chunk = chunkGetter.applyAsLong(object);
+                TimingHistogram histogram = chunks.get(chunk);
+                if (histogram == null)
+                {
+                    histogram = new TimingHistogram();
+                    chunks.put(chunk, histogram);
+                }
+                histogram.record(elapsed);
+            }
+        }
     }
 
     private void trackStart(T toTrack, long nanoTime)
@@ -139,7 +239,7 @@ public class TimeTracker<T>
             trackTime = 0;
         }
 
-        currentlyTracking = new WeakReference<>(toTrack);
+        currentlyTracking = toTrack;
         timing = nanoTime;
     }
 }
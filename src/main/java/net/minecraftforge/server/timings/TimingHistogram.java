@@ -0,0 +1,148 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2019.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.server.timings;
+
+import java.util.Arrays;
+
+/**
+ * A fixed size, log-linear histogram of nanosecond durations.
+ *
+ * Values are grouped into {@value #SUB_BUCKETS} linear sub-buckets per power of two, so any reported
+ * percentile is within roughly 12% of the real value. Recording never allocates, which makes it safe
+ * to leave running on the server thread for long periods.
+ */
+public class TimingHistogram
+{
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 42; // ~73 minutes, anything above is clamped into the last bucket
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final int[] counts = new int[BUCKETS];
+    private long count;
+    private long total;
+    private long max;
+
+    /**
+     * Records a single sample
+     *
+     * @param nanos The duration in nanoseconds
+     */
+    public void record(long nanos)
+    {
+        if (nanos < 0)
+            nanos = 0;
+        counts[bucketFor(nanos)]++;
+        count++;
+        total += nanos;
+        if (nanos > max)
+            max = nanos;
+    }
+
+    public void reset()
+    {
+        Arrays.fill(counts, 0);
+        count = 0;
+        total = 0;
+        max = 0;
+    }
+
+    public long getCount()
+    {
+        return count;
+    }
+
+    /**
+     * @return The sum of all recorded samples in nanoseconds
+     */
+    public long getTotal()
+    {
+        return total;
+    }
+
+    /**
+     * @return The largest recorded sample in nanoseconds
+     */
+    public long getMax()
+    {
+        return max;
+    }
+
+    /**
+     * @return The mean of all recorded samples in nanoseconds
+     */
+    public double getMean()
+    {
+        return count == 0 ? 0 : (double) total / count;
+    }
+
+    /**
+     * Estimates the value below which the given fraction of samples fall
+     *
+     * @param percentile The percentile, between 0 and 100
+     * @return The estimated value in nanoseconds, never more than {@link #getMax()}
+     */
+    public long getPercentile(double percentile)
+    {
+        if (count == 0)
+            return 0;
+        long target = (long) Math.ceil(count * Math.min(100, Math.max(0, percentile)) / 100.0);
+        if (target < 1)
+            target = 1;
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++)
+        {
+            seen += counts[i];
+            if (seen >= target)
+                return Math.min(max, midpointOf(i));
+        }
+        return max;
+    }
+
+    static int bucketFor(long value)
+    {
+        if (value < SUB_BUCKETS)
+            return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT)
+            return BUCKETS - 1;
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long lowerBoundOf(int bucket)
+    {
+        if (bucket < SUB_BUCKETS)
+            return bucket;
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int subBucket = bucket % SUB_BUCKETS;
+        return (1L << exponent) + ((long) subBucket << (exponent - SUB_BUCKET_BITS));
+    }
+
+    private static long midpointOf(int bucket)
+    {
+        if (bucket < SUB_BUCKETS)
+            return bucket;
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        if (exponent <= SUB_BUCKET_BITS) // Buckets are a single value wide here
+            return lowerBoundOf(bucket);
+        return lowerBoundOf(bucket) + (1L << (exponent - SUB_BUCKET_BITS - 1));
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2019.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.common.loot;
+
+import java.util.List;
+
+import com.google.gson.JsonObject;
+
+import net.minecraft.item.ItemStack;
+import net.minecraft.world.storage.loot.LootContext;
+import net.minecraft.world.storage.loot.LootParameters;
+import net.minecraft.world.storage.loot.conditions.ILootCondition;
+import net.minecraft.world.storage.loot.conditions.KilledByPlayer;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LootModifierDispatcherTest
+{
+    private static KilledByPlayer killedByPlayer(boolean inverse)
+    {
+        JsonObject json = new JsonObject();
+        json.addProperty("inverse", inverse);
+        return new KilledByPlayer.Serializer().deserialize(json, null);
+    }
+
+    private static LootModifier modifier(ILootCondition... conditions)
+    {
+        return new LootModifier(conditions)
+        {
+            @Override
+            protected List<ItemStack> doApply(List<ItemStack> generatedLoot, LootContext context)
+            {
+                return generatedLoot;
+            }
+        };
+    }
+
+    @Test
+    public void testKilledByPlayerRequiresPlayer()
+    {
+        assertTrue(LootModifierDispatcher.getRequiredParameters(modifier(killedByPlayer(false))).contains(LootParameters.LAST_DAMAGE_PLAYER),
+                "killed_by_player should only be dispatched when the last damage player is present");
+    }
+
+    @Test
+    public void testInvertedKilledByPlayerRequiresNothing()
+    {
+        assertTrue(LootModifierDispatcher.getRequiredParameters(modifier(killedByPlayer(true))).isEmpty(),
+                "Inverted killed_by_player passes without the last damage player, so it must be dispatched to every group");
+    }
+}
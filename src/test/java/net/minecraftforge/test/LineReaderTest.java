@@ -0,0 +1,104 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2019.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import net.minecraftforge.client.model.obj.LineReader;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LineReaderTest
+{
+    private static final int LINES = 20000;
+
+    private static String randomFloat(Random rand)
+    {
+        StringBuilder ret = new StringBuilder();
+        if (rand.nextInt(4) == 0)
+            ret.append(rand.nextBoolean() ? '-' : '+');
+        int intDigits = rand.nextInt(10);
+        int fracDigits = rand.nextInt(12);
+        if (intDigits == 0 && fracDigits == 0)
+            intDigits = 1;
+        for (int i = 0; i < intDigits; i++)
+            ret.append((char)('0' + rand.nextInt(10)));
+        if (fracDigits > 0 || rand.nextInt(8) == 0)
+            ret.append('.');
+        for (int i = 0; i < fracDigits; i++)
+            ret.append((char)('0' + rand.nextInt(10)));
+        if (rand.nextInt(16) == 0)
+            ret.append('e').append(rand.nextInt(20) - 10);
+        return ret.toString();
+    }
+
+    @Test
+    public void testParseFloatMatchesFloatParseFloat() throws Exception
+    {
+        Random rand = new Random(42);
+        List<String[]> expected = new ArrayList<>();
+        StringBuilder file = new StringBuilder();
+        for (int line = 0; line < LINES; line++)
+        {
+            String[] tokens = new String[1 + rand.nextInt(4)];
+            tokens[0] = "v";
+            file.append('v');
+            for (int i = 1; i < tokens.length; i++)
+            {
+                tokens[i] = randomFloat(rand);
+                file.append(rand.nextBoolean() ? " " : " \t ").append(tokens[i]);
+            }
+            file.append(rand.nextBoolean() ? "\n" : "\r\n");
+            expected.add(tokens);
+        }
+        String text = file.toString();
+
+        try (LineReader split = new LineReader(new StringReader(text)); LineReader parsed = new LineReader(new StringReader(text)))
+        {
+            for (String[] tokens : expected)
+            {
+                assertArrayEquals(tokens, split.readAndSplitLine(true), "Tokens differ from the source line");
+                assertTrue(parsed.nextLine(true));
+                assertEquals(tokens.length, parsed.getTokenCount());
+                for (int i = 1; i < tokens.length; i++)
+                {
+                    float reference = Float.parseFloat(tokens[i]);
+                    assertEquals(Float.floatToRawIntBits(reference), Float.floatToRawIntBits(parsed.parseFloat(i)), "Wrong value for " + tokens[i]);
+                }
+            }
+            assertNull(split.readAndSplitLine(true));
+        }
+    }
+
+    @Test
+    public void testParseFloatEdgeCases() throws Exception
+    {
+        String[] values = { "0", "-0", "+0.0", "16777216", "16777217", "0.1", "0.3", "1.0000001", "3.4028235e38", "1e-45", "NaN", "-Infinity", "123456789012345678901234567890", "0.0000000001", "0.00000000001" };
+        try (LineReader reader = new LineReader(new StringReader("v " + String.join(" ", values) + "\n")))
+        {
+            assertTrue(reader.nextLine(true));
+            for (int i = 0; i < values.length; i++)
+                assertEquals(Float.floatToRawIntBits(Float.parseFloat(values[i])), Float.floatToRawIntBits(reader.parseFloat(i + 1)), "Wrong value for " + values[i]);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2019.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import net.minecraftforge.common.util.RecipeMatcher;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RecipeMatcherTest
+{
+    private static final int GRIDS = 20000;
+
+    private static List<Integer> inputs(int count)
+    {
+        List<Integer> ret = new ArrayList<>();
+        for (int x = 0; x < count; x++)
+            ret.add(x);
+        return ret;
+    }
+
+    private static List<Predicate<Integer>> tests(boolean[][] matches)
+    {
+        List<Predicate<Integer>> ret = new ArrayList<>();
+        for (boolean[] row : matches)
+            ret.add(input -> row[input]);
+        return ret;
+    }
+
+    // Tries every assignment of inputs to tests
+    private static boolean bruteForce(boolean[][] matches, int test, boolean[] used)
+    {
+        if (test == matches.length)
+            return true;
+        for (int input = 0; input < used.length; input++)
+        {
+            if (!used[input] && matches[test][input])
+            {
+                used[input] = true;
+                boolean found = bruteForce(matches, test + 1, used);
+                used[input] = false;
+                if (found)
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    private static void assertValid(List<Integer> inputs, List<? extends Predicate<Integer>> tests, int[] ret)
+    {
+        assertEquals(inputs.size(), ret.length, "Every input should be mapped");
+        boolean[] used = new boolean[tests.size()];
+        for (int x = 0; x < ret.length; x++)
+        {
+            assertFalse(used[ret[x]], "Test " + ret[x] + " was used twice");
+            used[ret[x]] = true;
+            assertTrue(tests.get(ret[x]).test(inputs.get(x)), "Input " + x + " doesn't match test " + ret[x]);
+        }
+    }
+
+    @Test
+    public void testRandomGridsMatchBruteForce()
+    {
+        Random rand = new Random(42);
+        for (int grid = 0; grid < GRIDS; grid++)
+        {
+            int size = 1 + rand.nextInt(9);
+            double density = rand.nextDouble();
+            boolean[][] matches = new boolean[size][size];
+            for (boolean[] row : matches)
+                for (int y = 0; y < size; y++)
+                    row[y] = rand.nextDouble() < density;
+
+            List<Integer> inputs = inputs(size);
+            List<Predicate<Integer>> tests = tests(matches);
+            int[] ret = RecipeMatcher.findMatches(inputs, tests);
+            boolean expected = bruteForce(matches, 0, new boolean[size]);
+            assertEquals(expected, ret != null, "Wrong result for " + Arrays.deepToString(matches));
+            if (ret != null)
+                assertValid(inputs, tests, ret);
+        }
+    }
+
+    @Test
+    public void testEmpty()
+    {
+        int[] ret = RecipeMatcher.findMatches(Collections.<Integer>emptyList(), Collections.<Predicate<Integer>>emptyList());
+        assertNotNull(ret, "Nothing matches nothing");
+        assertEquals(0, ret.length);
+    }
+
+    @Test
+    public void testSizeMismatch()
+    {
+        assertNull(RecipeMatcher.findMatches(inputs(2), tests(new boolean[][] { { true, true } })));
+    }
+
+    @Test
+    public void testUnmatchedInput()
+    {
+        // Every test has a match, but nothing matches the last input
+        assertNull(RecipeMatcher.findMatches(inputs(3), tests(new boolean[][] {
+            { true, true, false },
+            { true, true, false },
+            { true, false, false }
+        })));
+    }
+
+    @Test
+    public void testUnmatchedTest()
+    {
+        assertNull(RecipeMatcher.findMatches(inputs(2), tests(new boolean[][] { { true, true }, { false, false } })));
+    }
+
+    @Test
+    public void testReentrantTest()
+    {
+        // A test that matches a recipe of its own while the outer call is in progress must not disturb it
+        boolean[][] inner = { { false, true }, { true, false } };
+        boolean[][] outer = {
+            { false, true, true },
+            { true, false, false },
+            { false, true, false }
+        };
+        List<Predicate<Integer>> tests = new ArrayList<>();
+        for (boolean[] row : outer)
+        {
+            tests.add(input -> {
+                int[] nested = RecipeMatcher.findMatches(inputs(2), tests(inner));
+                assertNotNull(nested);
+                assertArrayEquals(new int[] { 1, 0 }, nested);
+                return row[input];
+            });
+        }
+        List<Integer> inputs = inputs(3);
+        int[] ret = RecipeMatcher.findMatches(inputs, tests);
+        assertNotNull(ret);
+        assertValid(inputs, tests, ret);
+    }
+}